@@ -0,0 +1,75 @@
+package com.bank.bank_app.config;
+
+import com.bank.bank_app.service.QueryStatsService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+@Configuration
+public class DataSourceConfig {
+
+    // Wraps the pool twice. The inner QueryInspectingDataSource reports every statement to
+    // QueryStatsService (app.db.inspection.enabled). The outer ConcurrencyLimitedDataSource lets at most
+    // app.db.max-concurrency callers (default: the Hikari pool size) hold or wait for a connection; the
+    // rest wait on the semaphore up to app.db.acquire-timeout-ms.
+    @Bean
+    public static BeanPostProcessor dataSourcePostProcessor(Environment environment,
+                                                            ObjectProvider<QueryStatsService> queryStats) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConcurrencyLimitedDataSource
+                        || bean instanceof QueryInspectingDataSource) {
+                    return bean;
+                }
+                DataSource wrapped = dataSource;
+                if (environment.getProperty("app.db.inspection.enabled", Boolean.class, true)) {
+                    wrapped = new QueryInspectingDataSource(wrapped, queryStats.getObject());
+                }
+                if (!environment.getProperty("app.db.limiter.enabled", Boolean.class, true)) {
+                    return wrapped;
+                }
+                int maxConcurrency = environment.getProperty("app.db.max-concurrency", Integer.class, 0);
+                if (maxConcurrency <= 0) {
+                    maxConcurrency = poolSize(dataSource);
+                }
+                long timeout = environment.getProperty("app.db.acquire-timeout-ms", Long.class, 5000L);
+                return new ConcurrencyLimitedDataSource(wrapped, new DbConcurrencyLimiter(maxConcurrency, timeout));
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder dbConcurrencyLimiterMetrics(DataSource dataSource) {
+        return registry -> {
+            if (!(dataSource instanceof ConcurrencyLimitedDataSource limited)) {
+                return;
+            }
+            DbConcurrencyLimiter limiter = limited.getLimiter();
+            Gauge.builder("bank.db.limiter.available", limiter, DbConcurrencyLimiter::getAvailable)
+                    .description("Free database permits")
+                    .register(registry);
+            Gauge.builder("bank.db.limiter.waiting", limiter, DbConcurrencyLimiter::getWaiting)
+                    .description("Threads waiting for a database permit")
+                    .register(registry);
+        };
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException ignored) {
+        }
+        return 10;
+    }
+}
@@ -4,7 +4,6 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
-import javax.crypto.Cipher;
 import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
@@ -17,6 +16,9 @@ public class EncryptionConfig {
     @Value("${app.encryption.key:}")
     private String encryptionKey;
 
+    @Value("${app.encryption.blind-index-key:}")
+    private String blindIndexKey;
+
     @Bean
     public SecretKey secretKey() throws Exception {
         if (encryptionKey != null && !encryptionKey.isEmpty()) {
@@ -31,16 +33,20 @@ public class EncryptionConfig {
     }
 
     @Bean
-    public Cipher encryptionCipher(SecretKey secretKey) throws Exception {
-        Cipher cipher = Cipher.getInstance("AES");
-        cipher.init(Cipher.ENCRYPT_MODE, secretKey);
-        return cipher;
+    public SecretKey blindIndexKey() throws Exception {
+        if (blindIndexKey != null && !blindIndexKey.isEmpty()) {
+            return hmacKey(blindIndexKey);
+        } else if (encryptionKey != null && !encryptionKey.isEmpty()) {
+            return hmacKey("blind-index:" + encryptionKey);
+        } else {
+            KeyGenerator keyGen = KeyGenerator.getInstance("HmacSHA256");
+            return keyGen.generateKey();
+        }
     }
 
-    @Bean
-    public Cipher decryptionCipher(SecretKey secretKey) throws Exception {
-        Cipher cipher = Cipher.getInstance("AES");
-        cipher.init(Cipher.DECRYPT_MODE, secretKey);
-        return cipher;
+    private SecretKey hmacKey(String source) throws Exception {
+        MessageDigest sha = MessageDigest.getInstance("SHA-256");
+        byte[] keyBytes = sha.digest(source.getBytes(StandardCharsets.UTF_8));
+        return new SecretKeySpec(keyBytes, "HmacSHA256");
     }
-}
\ No newline at end of file
+}
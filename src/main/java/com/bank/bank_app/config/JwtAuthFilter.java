@@ -1,14 +1,26 @@
 package com.bank.bank_app.config;
 
+import com.bank.bank_app.entity.User;
+import com.bank.bank_app.service.JwtService;
+import com.bank.bank_app.service.SecurityService;
+import com.bank.bank_app.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.web.context.RequestAttributeSecurityContextRepository;
+import org.springframework.security.web.context.SecurityContextRepository;
 import org.springframework.stereotype.Component;
 import org.springframework.util.AntPathMatcher;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -16,16 +28,19 @@ import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 import java.util.List;
 import java.util.Objects;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
-    private static final Logger log = Logger.getLogger(JwtAuthFilter.class.getName());
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthFilter.class);
 
-    private final com.bank.bank_app.service.JwtService jwtService;
-    private final com.bank.bank_app.service.SecurityService securityService;
+    private final JwtService jwtService;
+    private final SecurityService securityService;
+    private final TokenRevocationService tokenRevocationService;
+    private final Timer authenticatedTimer;
+    private final Timer revokedTimer;
+    private final Timer rejectedTimer;
 
     private static final List<String> PUBLIC_PATHS = List.of(
             "/v3/api-docs/**",
@@ -40,11 +55,28 @@ public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final AntPathMatcher pathMatcher = new AntPathMatcher();
 
+    // Async handlers (CompletableFuture transfers, streaming exports) finish in an ASYNC dispatch, which
+    // this filter skips; SecurityContextHolderFilter restores the context from the request attribute there.
+    private final SecurityContextRepository securityContextRepository = new RequestAttributeSecurityContextRepository();
+
     @Autowired
-    public JwtAuthFilter(com.bank.bank_app.service.JwtService jwtService,
-                         com.bank.bank_app.service.SecurityService securityService) {
+    public JwtAuthFilter(JwtService jwtService,
+                         SecurityService securityService,
+                         TokenRevocationService tokenRevocationService,
+                         MeterRegistry meterRegistry) {
         this.jwtService = jwtService;
         this.securityService = securityService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.authenticatedTimer = authTimer("authenticated", meterRegistry);
+        this.revokedTimer = authTimer("revoked", meterRegistry);
+        this.rejectedTimer = authTimer("rejected", meterRegistry);
+    }
+
+    private static Timer authTimer(String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("bank.auth.jwt")
+                .description("Bearer token verification in JwtAuthFilter")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
 
     @Override
@@ -65,30 +97,53 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     protected void doFilterInternal(@NonNull HttpServletRequest request,
                                     @NonNull HttpServletResponse response,
                                     @NonNull FilterChain filterChain) throws ServletException, IOException {
+        long start = System.nanoTime();
+        Timer timer = null;
         try {
             String authHeader = request.getHeader("Authorization");
-            if (Objects.nonNull(authHeader) && authHeader.startsWith("Bearer ")) {
+            if (Objects.nonNull(authHeader) && authHeader.startsWith("Bearer ")
+                    && SecurityContextHolder.getContext().getAuthentication() == null) {
                 String token = authHeader.substring(7);
-                String username = jwtService.extractUsername(token);
-
-                if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    UserDetails userDetails = securityService.loadUserByUsername(username);
-                    boolean valid = jwtService.isTokenValid(token, userDetails);
+                // Signature and expiry are verified here, once; an invalid token throws.
+                Claims claims = jwtService.parseToken(token);
+                String username = claims.getSubject();
 
-                    if (valid) {
-                        UsernamePasswordAuthenticationToken authToken =
-                                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
-                        SecurityContextHolder.getContext().setAuthentication(authToken);
-                        log.log(Level.FINE, "JWT authenticated for user: " + username);
-                    } else {
-                        log.log(Level.FINE, "JWT token invalid for user: " + username);
-                    }
+                if (username != null && !tokenRevocationService.isRevoked(claims.getId())) {
+                    UserDetails userDetails = principalFromClaims(claims);
+                    UsernamePasswordAuthenticationToken authToken =
+                            new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+                    SecurityContext context = SecurityContextHolder.createEmptyContext();
+                    context.setAuthentication(authToken);
+                    SecurityContextHolder.setContext(context);
+                    securityContextRepository.saveContext(context, request, response);
+                    timer = authenticatedTimer;
+                    log.debug("JWT authenticated for user: {}", username);
+                } else {
+                    timer = revokedTimer;
+                    log.debug("JWT token revoked for user: {}", username);
                 }
             }
         } catch (Exception ex) {
-            log.log(Level.WARNING, "Failed to process JWT authentication", ex);
+            timer = rejectedTimer;
+            log.warn("Failed to process JWT authentication: {}", ex.getMessage());
+        }
+        if (timer != null) {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
         }
 
         filterChain.doFilter(request, response);
     }
-}
\ No newline at end of file
+
+    // Tokens carry the user id and role, so the principal is built without a database round trip.
+    // Tokens issued without those claims fall back to loading the user.
+    private UserDetails principalFromClaims(Claims claims) {
+        Long userId = claims.get(JwtService.USER_ID_CLAIM, Long.class);
+        String role = claims.get(JwtService.ROLE_CLAIM, String.class);
+        if (userId == null || role == null) {
+            return securityService.loadUserByUsername(claims.getSubject());
+        }
+        User user = new User(claims.getSubject(), null, role);
+        user.setId(userId);
+        return user;
+    }
+}
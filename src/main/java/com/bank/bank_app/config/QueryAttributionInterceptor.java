@@ -0,0 +1,46 @@
+package com.bank.bank_app.config;
+
+import com.bank.bank_app.service.QueryStatsService;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * Binds the handler (e.g. "CardController.getUserCards") to the request thread so that
+ * QueryStatsService can attribute the statements it sees.
+ */
+@Component
+public class QueryAttributionInterceptor implements AsyncHandlerInterceptor {
+
+    private final QueryStatsService queryStatsService;
+
+    public QueryAttributionInterceptor(QueryStatsService queryStatsService) {
+        this.queryStatsService = queryStatsService;
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                             @NonNull Object handler) {
+        if (handler instanceof HandlerMethod method && request.getDispatcherType() != DispatcherType.ASYNC) {
+            queryStatsService.beginRequest(method.getBeanType().getSimpleName() + "." + method.getMethod().getName());
+        }
+        return true;
+    }
+
+    // A streaming body continues on another thread; what it executes there is counted as background.
+    @Override
+    public void afterConcurrentHandlingStarted(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                               @NonNull Object handler) {
+        queryStatsService.endRequest();
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+                                @NonNull Object handler, Exception ex) {
+        queryStatsService.endRequest();
+    }
+}
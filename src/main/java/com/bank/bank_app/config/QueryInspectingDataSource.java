@@ -0,0 +1,111 @@
+package com.bank.bank_app.config;
+
+import com.bank.bank_app.service.QueryStatsService;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Wraps connections so that every executed statement is timed and reported to
+ * {@link QueryStatsService} together with its SQL and the types of its bound parameters.
+ */
+public class QueryInspectingDataSource extends DelegatingDataSource {
+
+    private static final Set<String> EXECUTE_METHODS = Set.of(
+            "execute", "executeQuery", "executeUpdate", "executeLargeUpdate", "executeBatch", "executeLargeBatch");
+
+    private final QueryStatsService queryStats;
+
+    public QueryInspectingDataSource(DataSource targetDataSource, QueryStatsService queryStats) {
+        super(targetDataSource);
+        this.queryStats = queryStats;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return inspected(obtainTargetDataSource().getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return inspected(obtainTargetDataSource().getConnection(username, password));
+    }
+
+    private Connection inspected(Connection target) {
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> {
+                        Object result = invoke(target, method, args);
+                        if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                            String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                            yield inspected(statement, method.getReturnType(), sql);
+                        }
+                        yield result;
+                    }
+                });
+    }
+
+    // Proxies Statement, PreparedStatement or CallableStatement, whichever the connection method returned.
+    private Object inspected(Statement target, Class<?> type, String preparedSql) {
+        List<String> bindShape = new ArrayList<>();
+        return Proxy.newProxyInstance(
+                type.getClassLoader(),
+                new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    String name = method.getName();
+                    if (name.equals("equals")) {
+                        return proxy == args[0];
+                    }
+                    if (name.equals("hashCode")) {
+                        return System.identityHashCode(proxy);
+                    }
+                    if (EXECUTE_METHODS.contains(name)) {
+                        String sql = args != null && args.length > 0 && args[0] instanceof String s ? s : preparedSql;
+                        long started = System.nanoTime();
+                        try {
+                            return invoke(target, method, args);
+                        } finally {
+                            queryStats.record(sql, bindShape, System.nanoTime() - started);
+                        }
+                    }
+                    if (name.equals("clearParameters")) {
+                        bindShape.clear();
+                    } else if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                        // Statement's own setters take one argument; two or more means a parameter binding.
+                        bind(bindShape, index, name.equals("setNull") || args[1] == null
+                                ? "null" : args[1].getClass().getSimpleName());
+                    }
+                    return invoke(target, method, args);
+                });
+    }
+
+    private static void bind(List<String> bindShape, int index, String type) {
+        while (bindShape.size() < index) {
+            bindShape.add("?");
+        }
+        if (index >= 1) {
+            bindShape.set(index - 1, type);
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
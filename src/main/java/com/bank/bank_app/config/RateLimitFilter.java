@@ -0,0 +1,79 @@
+package com.bank.bank_app.config;
+
+import com.bank.bank_app.entity.User;
+import com.bank.bank_app.service.RateLimiter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.lang.NonNull;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-user, per-endpoint rate limiting (see RateLimiter). Runs after JwtAuthFilter, so only
+ * authenticated requests are limited; anonymous ones (login, docs) pass through.
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    private final RateLimiter rateLimiter;
+
+    @Autowired
+    public RateLimitFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(@NonNull HttpServletRequest request) {
+        return !rateLimiter.isEnabled() || "OPTIONS".equalsIgnoreCase(request.getMethod());
+    }
+
+    @Override
+    protected void doFilterInternal(@NonNull HttpServletRequest request,
+                                    @NonNull HttpServletResponse response,
+                                    @NonNull FilterChain filterChain) throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String endpoint = RateLimiter.endpoint(request.getMethod(), request.getServletPath());
+        long wait = rateLimiter.tryAcquire(authentication.getName(), role(authentication), endpoint);
+        if (wait > 0) {
+            long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1));
+            log.debug("Rate limit exceeded for user {} on {}", authentication.getName(), endpoint);
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setHeader("Retry-After", String.valueOf(retryAfter));
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write("Too many requests, retry after " + retryAfter + " s");
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private static String role(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof User user) {
+            return user.getRole();
+        }
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if ("ROLE_ADMIN".equals(authority.getAuthority())) {
+                return "ROLE_ADMIN";
+            }
+        }
+        return "ROLE_USER";
+    }
+}
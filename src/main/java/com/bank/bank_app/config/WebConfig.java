@@ -0,0 +1,31 @@
+package com.bank.bank_app.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    private final CurrentUserArgumentResolver currentUserArgumentResolver;
+    private final QueryAttributionInterceptor queryAttributionInterceptor;
+
+    public WebConfig(CurrentUserArgumentResolver currentUserArgumentResolver,
+                     QueryAttributionInterceptor queryAttributionInterceptor) {
+        this.currentUserArgumentResolver = currentUserArgumentResolver;
+        this.queryAttributionInterceptor = queryAttributionInterceptor;
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(currentUserArgumentResolver);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(queryAttributionInterceptor);
+    }
+}
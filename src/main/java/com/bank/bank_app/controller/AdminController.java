@@ -1,20 +1,40 @@
 package com.bank.bank_app.controller;
 
+import com.bank.bank_app.dto.BulkCardRequest;
+import com.bank.bank_app.dto.BulkIssueResult;
+import com.bank.bank_app.dto.CardFilter;
+import com.bank.bank_app.dto.CardView;
+import com.bank.bank_app.dto.QueryStatsReport;
 import com.bank.bank_app.entity.Card;
 import com.bank.bank_app.entity.CardStatus;
-import com.bank.bank_app.entity.User;
-import com.bank.bank_app.repository.UserRepository;
+import com.bank.bank_app.service.CardExportService;
+import com.bank.bank_app.service.CardIssuanceService;
 import com.bank.bank_app.service.CardService;
+import com.bank.bank_app.service.ExportFormat;
+import com.bank.bank_app.service.QueryStatsService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.util.Random;
+import java.time.LocalDateTime;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/admin")
@@ -26,26 +46,88 @@ public class AdminController {
     private CardService cardService;
 
     @Autowired
-    private UserRepository userRepository;
+    private CardExportService cardExportService;
 
-    @PostMapping("/cards")
-    @Operation(summary = "Создать карту", description = "Создает новую банковскую карту для пользователя с указанным балансом")
-    public ResponseEntity<Card> createCard(@RequestBody CreateCardRequest request) {
-        User user = userRepository.findById(request.getUserId())
-                .orElseThrow(() -> new RuntimeException("User not found with id: " + request.getUserId()));
+    @Autowired
+    private CardIssuanceService cardIssuanceService;
+
+    @Autowired
+    private QueryStatsService queryStatsService;
+
+    @Value("${app.export.timeout-ms:3600000}")
+    private long exportTimeoutMs;
+
+    @GetMapping("/cards")
+    @Operation(summary = "Получить все карты", description = "Возвращает все карты системы с пагинацией (страницы начинаются с 1) и маскированными номерами")
+    public ResponseEntity<Page<CardView>> getAllCards(
+            @ParameterObject CardFilter filter,
+            @RequestParam(defaultValue = "1") int page,
+            @RequestParam(defaultValue = "10") int size) {
+        return ResponseEntity.ok(cardService.getAllCards(filter, PageRequest.of(page - 1, size)));
+    }
+
+    @GetMapping("/cards/export")
+    @Operation(summary = "Выгрузить все карты",
+            description = "Потоковая выгрузка всех карт в CSV или NDJSON без пагинации. Номера карт маскируются")
+    public ResponseEntity<StreamingResponseBody> exportCards(
+            @Parameter(description = "Формат: CSV или NDJSON", example = "CSV")
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @Parameter(description = "Фильтр по статусу карты")
+            @RequestParam(required = false) CardStatus status,
+            HttpServletRequest request) {
+        return streaming(request, format, "cards", out -> cardExportService.exportCards(format, status, out));
+    }
 
-        String cardNumber = generateCardNumber();
+    @GetMapping("/ledger/export")
+    @Operation(summary = "Выгрузить операции по картам",
+            description = "Потоковая выгрузка записей журнала операций в CSV или NDJSON, " +
+                    "опционально по одной карте и за период [from, to)")
+    public ResponseEntity<StreamingResponseBody> exportLedger(
+            @Parameter(description = "Формат: CSV или NDJSON", example = "CSV")
+            @RequestParam(defaultValue = "CSV") ExportFormat format,
+            @Parameter(description = "ID карты")
+            @RequestParam(required = false) Long cardId,
+            @Parameter(description = "Начало периода (ISO 8601)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @Parameter(description = "Конец периода (ISO 8601, не включительно)")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            HttpServletRequest request) {
+        return streaming(request, format, "ledger", out -> cardExportService.exportLedger(format, cardId, from, to, out));
+    }
 
-        Card card = new Card();
-        card.setCardNumber(cardNumber);
-        card.setOwnerName(request.getOwnerName());
-        card.setExpiryDate(LocalDate.now().plusYears(3));
-        card.setBalance(request.getBalance() != null ? request.getBalance() : BigDecimal.ZERO);
-        card.setStatus(CardStatus.ACTIVE);
-        card.setUser(user);
+    // Exports outlive spring.mvc.async.request-timeout, which stays short for the other async endpoints
+    // (transfers); the body is streamed in the async request started right after this method returns.
+    private ResponseEntity<StreamingResponseBody> streaming(HttpServletRequest request, ExportFormat format,
+                                                            String name, StreamingResponseBody body) {
+        AsyncWebRequest asyncRequest = WebAsyncUtils.getAsyncManager(request).getAsyncWebRequest();
+        if (asyncRequest != null) {
+            asyncRequest.setTimeout(exportTimeoutMs);
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"" + name + "-" + LocalDate.now() + "." + format.getExtension() + "\"")
+                .body(body);
+    }
+
+    @PostMapping("/cards")
+    @Operation(summary = "Создать карту", description = "Создает новую банковскую карту для пользователя с указанным балансом")
+    public ResponseEntity<CardView> createCard(@RequestBody CreateCardRequest request) {
+        BulkIssueResult result = cardIssuanceService.issue(List.of(
+                new BulkCardRequest(request.getUserId(), request.getOwnerName(), request.getBalance(), 1)));
+        return ResponseEntity.ok(cardService.getCardWithMaskedNumber(result.getCardIds().get(0)));
+    }
 
-        Card savedCard = cardService.createCard(card);
-        return ResponseEntity.ok(savedCard);
+    @PostMapping("/cards/bulk")
+    @Operation(summary = "Массовый выпуск карт",
+            description = "Выпускает count карт для каждой позиции запроса в одной транзакции. " +
+                    "Номера уникальны и проходят проверку по алгоритму Луна")
+    public ResponseEntity<?> issueCards(@RequestBody List<BulkCardRequest> requests) {
+        try {
+            return ResponseEntity.ok(cardIssuanceService.issue(requests));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @DeleteMapping("/cards/{cardId}")
@@ -58,55 +140,62 @@ public class AdminController {
 
     @PutMapping("/cards/{cardId}/block")
     @Operation(summary = "Блокировать карту", description = "Административная блокировка карты")
-    public ResponseEntity<Card> blockCard(@PathVariable Long cardId) {
+    public ResponseEntity<CardView> blockCard(@PathVariable Long cardId) {
         Card card = cardService.blockCard(cardId);
-        return ResponseEntity.ok(card);
+        return ResponseEntity.ok(cardService.toView(card));
     }
 
     @PutMapping("/cards/{cardId}/activate")
     @Operation(summary = "Активировать карту", description = "Активация заблокированной карты")
-    public ResponseEntity<Card> activateCard(@PathVariable Long cardId) {
+    public ResponseEntity<CardView> activateCard(@PathVariable Long cardId) {
         Card card = cardService.activateCard(cardId);
-        return ResponseEntity.ok(card);
+        return ResponseEntity.ok(cardService.toView(card));
     }
 
     @PutMapping("/cards/{cardId}/balance")
     @Operation(summary = "Пополнить баланс карты", description = "Административное пополнение баланса карты")
-    public ResponseEntity<Card> updateBalance(
+    public ResponseEntity<CardView> updateBalance(
             @PathVariable Long cardId,
             @RequestParam BigDecimal amount) {
 
-        Card card = cardService.getCardById(cardId);
-        BigDecimal newBalance = card.getBalance().add(amount);
-        Card updatedCard = cardService.updateBalance(cardId, newBalance);
+        Card updatedCard = cardService.topUp(cardId, amount);
+        return ResponseEntity.ok(cardService.toView(updatedCard));
+    }
+
+    @PutMapping("/cards/{cardId}/hot")
+    @Operation(summary = "Включить режим горячей карты",
+            description = "Баланс карты делится на stripes частей: зачисления распределяются по частям и не " +
+                    "блокируют друг друга, списания и чтения учитывают сумму всех частей")
+    public ResponseEntity<?> enableHotCard(
+            @PathVariable Long cardId,
+            @Parameter(description = "Число частей баланса", example = "8")
+            @RequestParam(defaultValue = "8") int stripes) {
+        try {
+            cardService.setHotCard(cardId, stripes);
+            return ResponseEntity.ok(cardService.getCardWithMaskedNumber(cardId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
 
-        return ResponseEntity.ok(updatedCard);
+    @DeleteMapping("/cards/{cardId}/hot")
+    @Operation(summary = "Выключить режим горячей карты", description = "Собирает части баланса обратно в один баланс карты")
+    public ResponseEntity<?> disableHotCard(@PathVariable Long cardId) {
+        try {
+            cardService.setHotCard(cardId, 0);
+            return ResponseEntity.ok(cardService.getCardWithMaskedNumber(cardId));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @PostMapping("/test-data")
     @Operation(summary = "Создать тестовые данные", description = "Создает тестовые карты для пользователя")
     public ResponseEntity<?> createTestData(@RequestParam Long userId) {
         try {
-            User user = userRepository.findById(userId)
-                    .orElseThrow(() -> new RuntimeException("User not found"));
-
-            Card card1 = new Card();
-            card1.setCardNumber(generateCardNumber());
-            card1.setOwnerName("Test User");
-            card1.setExpiryDate(LocalDate.now().plusYears(3));
-            card1.setBalance(new BigDecimal("5000.00"));
-            card1.setStatus(CardStatus.ACTIVE);
-            card1.setUser(user);
-            cardService.createCard(card1);
-
-            Card card2 = new Card();
-            card2.setCardNumber(generateCardNumber());
-            card2.setOwnerName("Test User");
-            card2.setExpiryDate(LocalDate.now().plusYears(3));
-            card2.setBalance(new BigDecimal("3000.00"));
-            card2.setStatus(CardStatus.ACTIVE);
-            card2.setUser(user);
-            cardService.createCard(card2);
+            cardIssuanceService.issue(List.of(
+                    new BulkCardRequest(userId, "Test User", new BigDecimal("5000.00"), 1),
+                    new BulkCardRequest(userId, "Test User", new BigDecimal("3000.00"), 1)));
 
             return ResponseEntity.ok("Test cards created successfully");
 
@@ -115,13 +204,19 @@ public class AdminController {
         }
     }
 
-    private String generateCardNumber() {
-        Random random = new Random();
-        StringBuilder cardNumber = new StringBuilder();
-        for (int i = 0; i < 16; i++) {
-            cardNumber.append(random.nextInt(10));
-        }
-        return cardNumber.toString();
+    @GetMapping("/query-stats")
+    @Operation(summary = "Статистика SQL-запросов",
+            description = "Число и время выполнения SQL-запросов по методам контроллеров, " +
+                    "последние медленные запросы и подозрения на N+1 (с типами параметров, без значений)")
+    public ResponseEntity<QueryStatsReport> getQueryStats() {
+        return ResponseEntity.ok(queryStatsService.getReport());
+    }
+
+    @DeleteMapping("/query-stats")
+    @Operation(summary = "Сбросить статистику SQL-запросов", description = "Обнуляет накопленную статистику SQL-запросов")
+    public ResponseEntity<?> resetQueryStats() {
+        queryStatsService.reset();
+        return ResponseEntity.ok("Query stats reset");
     }
 
     public static class CreateCardRequest {
@@ -4,6 +4,8 @@ import com.bank.bank_app.dto.AuthRequest;
 import com.bank.bank_app.entity.User;
 import com.bank.bank_app.repository.UserRepository;
 import com.bank.bank_app.service.JwtService;
+import com.bank.bank_app.service.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -25,6 +27,9 @@ public class AuthController {
     @Autowired
     private JwtService jwtService;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     @GetMapping("/test-swagger")
     public String testSwagger() {
         return "Swagger should be available at: http://localhost:8081/swagger-ui.html";
@@ -94,4 +99,24 @@ public class AuthController {
             return ResponseEntity.badRequest().body("Login failed: " + e.getMessage());
         }
     }
-}
\ No newline at end of file
+
+    @PostMapping("/logout")
+    @Operation(summary = "Выход из системы", description = "Отзывает переданный JWT токен до истечения его срока действия")
+    public ResponseEntity<?> logout(@RequestHeader(value = "Authorization", required = false) String authHeader) {
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return ResponseEntity.badRequest().body("Missing bearer token");
+        }
+        if (!tokenRevocationService.isEnabled()) {
+            return ResponseEntity.badRequest().body("Token revocation is disabled");
+        }
+
+        try {
+            Claims claims = jwtService.parseToken(authHeader.substring(7));
+            tokenRevocationService.revoke(claims.getId(), claims.getExpiration().getTime());
+            return ResponseEntity.ok("Logged out successfully");
+
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Logout failed: " + e.getMessage());
+        }
+    }
+}
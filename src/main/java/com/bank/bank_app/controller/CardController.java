@@ -1,24 +1,46 @@
 package com.bank.bank_app.controller;
 
+import com.bank.bank_app.config.CurrentUser;
+import com.bank.bank_app.dto.CardFilter;
+import com.bank.bank_app.dto.CardSlice;
+import com.bank.bank_app.dto.CardStatement;
+import com.bank.bank_app.dto.CardView;
+import com.bank.bank_app.dto.IdempotentOutcome;
+import com.bank.bank_app.dto.TransferRequest;
+import com.bank.bank_app.dto.TransferResult;
 import com.bank.bank_app.entity.Card;
-import com.bank.bank_app.entity.CardStatus;
 import com.bank.bank_app.entity.User;
+import com.bank.bank_app.exception.CardNotFoundException;
+import com.bank.bank_app.exception.InsufficientFundsException;
+import com.bank.bank_app.exception.TransferException;
 import com.bank.bank_app.service.CardService;
-import com.bank.bank_app.service.SecurityService;
+import com.bank.bank_app.service.IdempotencyService;
+import com.bank.bank_app.service.LedgerService;
 import com.bank.bank_app.service.TransferService;
+import com.bank.bank_app.service.TransferShardExecutor;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/cards")
@@ -26,6 +48,11 @@ import java.math.BigDecimal;
 @SecurityRequirement(name = "bearerAuth")
 public class CardController {
 
+    private static final Logger log = LoggerFactory.getLogger(CardController.class);
+
+    // Shard queues drain within a group commit or two.
+    private static final int TRANSFER_RETRY_AFTER_SECONDS = 1;
+
     @Autowired
     private CardService cardService;
 
@@ -33,38 +60,62 @@ public class CardController {
     private TransferService transferService;
 
     @Autowired
-    private SecurityService securityService;
+    private TransferShardExecutor transferShardExecutor;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private LedgerService ledgerService;
 
     @GetMapping
     @Operation(summary = "Получить карты пользователя",
-            description = "Возвращает список карт с пагинацией (страницы начинаются с 1) и фильтрацией")
-    public ResponseEntity<Page<Card>> getUserCards(
-            Authentication authentication,
+            description = "Возвращает список карт с пагинацией (страницы начинаются с 1), фильтрацией и сортировкой " +
+                    "(sort=balance,desc&sort=expiryDate). " +
+                    "С параметром after или withTotal=false возвращается срез без подсчета общего количества " +
+                    "и курсор nextCursor для следующей страницы")
+    public ResponseEntity<?> getUserCards(
+            @CurrentUser User user,
             @Parameter(description = "Номер страницы (начинается с 1)", example = "1")
             @RequestParam(defaultValue = "1") int page,
             @Parameter(description = "Размер страницы", example = "10")
             @RequestParam(defaultValue = "10") int size,
-            @Parameter(description = "Фильтр по имени владельца")
-            @RequestParam(required = false) String ownerName,
-            @Parameter(description = "Фильтр по статусу карты")
-            @RequestParam(required = false) CardStatus status) {
+            @ParameterObject CardFilter filter,
+            @Parameter(description = "Сортировка: свойство[,asc|desc] (id, ownerName, expiryDate, balance, status)")
+            @RequestParam(required = false) List<String> sort,
+            @Parameter(description = "Курсор nextCursor из предыдущего ответа (режим keyset)")
+            @RequestParam(required = false) String after,
+            @Parameter(description = "Считать ли общее количество карт (false - без COUNT)", example = "true")
+            @RequestParam(defaultValue = "true") boolean withTotal) {
 
-        User user = securityService.getCurrentUser(authentication);
+        try {
+            if (after != null) {
+                long afterId = CardSlice.decodeCursor(after);
+                Pageable pageable = PageRequest.of(0, size, parseSort(sort));
+                return ResponseEntity.ok(cardService.getUserCardsSlice(user, filter, afterId, pageable));
+            }
+
+            Pageable pageable = PageRequest.of(page - 1, size, parseSort(sort));
+            if (!withTotal) {
+                return ResponseEntity.ok(cardService.getUserCardsSlice(user, filter, 0, pageable));
+            }
+
+            Page<CardView> cards = cardService.getUserCardsWithFilters(user, filter, pageable);
 
-        Pageable pageable = PageRequest.of(page - 1, size);
-        Page<Card> cards = cardService.getUserCardsWithFilters(user, ownerName, status, pageable);
+            return ResponseEntity.ok(cards);
 
-        return ResponseEntity.ok(cards);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @GetMapping("/{id}")
     @Operation(summary = "Получить карту по ID",
             description = "Возвращает информацию о конкретной карте с маскированным номером")
-    public ResponseEntity<Card> getCard(@PathVariable Long id, Authentication authentication) {
-        User user = securityService.getCurrentUser(authentication);
-        Card card = cardService.getCardWithMaskedNumber(id);
+    public ResponseEntity<CardView> getCard(@PathVariable Long id, @CurrentUser User user) {
+        CardView card = cardService.getCardWithMaskedNumber(id);
 
-        if (!card.getUser().getId().equals(user.getId())) {
+        if (!card.getUserId().equals(user.getId())) {
             return ResponseEntity.status(403).build();
         }
 
@@ -74,64 +125,143 @@ public class CardController {
     @PutMapping("/{id}/request-block")
     @Operation(summary = "Запрос на блокировку карты",
             description = "Пользователь запрашивает блокировку своей карты")
-    public ResponseEntity<Card> requestBlockCard(@PathVariable Long id, Authentication authentication) {
-        User user = securityService.getCurrentUser(authentication);
-        Card card = cardService.getCardWithMaskedNumber(id);
-
-        if (!card.getUser().getId().equals(user.getId())) {
+    public ResponseEntity<CardView> requestBlockCard(@PathVariable Long id, @CurrentUser User user) {
+        if (!cardService.isOwner(id, user)) {
             return ResponseEntity.status(403).build();
         }
 
         Card blockedCard = cardService.blockCard(id);
-        return ResponseEntity.ok(cardService.maskCardNumber(blockedCard));
+        return ResponseEntity.ok(cardService.toView(blockedCard));
+    }
+
+    @GetMapping("/{id}/transactions")
+    @Operation(summary = "Выписка по карте",
+            description = "Возвращает операции по карте, начиная с последних. " +
+                    "Следующая страница запрашивается с курсором nextCursor в параметре before")
+    public ResponseEntity<?> getStatement(
+            @PathVariable Long id,
+            @CurrentUser User user,
+            @Parameter(description = "Размер страницы", example = "20")
+            @RequestParam(defaultValue = "20") int size,
+            @Parameter(description = "Курсор nextCursor из предыдущего ответа")
+            @RequestParam(required = false) String before) {
+
+        if (!cardService.isOwner(id, user)) {
+            return ResponseEntity.status(403).build();
+        }
+
+        try {
+            if (size < 1 || size > 100) {
+                throw new IllegalArgumentException("Size must be between 1 and 100");
+            }
+            CardStatement statement = ledgerService.getStatement(id, before, size);
+            return ResponseEntity.ok(statement);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}/balance-at")
+    @Operation(summary = "Баланс карты на момент времени",
+            description = "Восстанавливает баланс по последнему снимку и операциям после него. " +
+                    "История начинается с первой операции по карте (для карт, выпущенных до журнала операций, — " +
+                    "с момента миграции); более ранний момент возвращает 400")
+    public ResponseEntity<?> getBalanceAt(
+            @PathVariable Long id,
+            @CurrentUser User user,
+            @Parameter(description = "Момент времени (ISO 8601)", example = "2025-01-31T23:59:59")
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+
+        if (!cardService.isOwner(id, user)) {
+            return ResponseEntity.status(403).build();
+        }
+
+        try {
+            return ResponseEntity.ok(ledgerService.balanceAt(id, at));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @PostMapping("/transfer")
     @Operation(summary = "Перевод между картами",
-            description = "Перевод средств между картами одного пользователя")
-    public ResponseEntity<?> transferBetweenCards(
-            Authentication authentication,
+            description = "Перевод средств между картами одного пользователя. " +
+                    "Повтор запроса с тем же заголовком Idempotency-Key возвращает сохраненный результат " +
+                    "без повторного перевода (заголовок ответа Idempotent-Replayed: true). " +
+                    "При app.transfer.sharded.enabled=true перевод без Idempotency-Key выполняется в очереди " +
+                    "карты-источника вместе с другими переводами; ответ приходит после фиксации транзакции")
+    public CompletableFuture<ResponseEntity<?>> transferBetweenCards(
+            @CurrentUser User user,
+            @Parameter(description = "Уникальный ключ запроса для безопасных повторов")
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
             @RequestBody TransferRequest request) {
 
         try {
-            User user = securityService.getCurrentUser(authentication);
+            if (idempotencyKey != null) {
+                IdempotentOutcome outcome = idempotencyService.transfer(user, idempotencyKey, request);
+                return CompletableFuture.completedFuture(ResponseEntity.status(outcome.getStatusCode())
+                        .header("Idempotent-Replayed", String.valueOf(outcome.isReplayed()))
+                        .body(outcome.getBody()));
+            }
+
+            if (transferShardExecutor.isEnabled()) {
+                return transferShardExecutor.submit(user, request)
+                        .<ResponseEntity<?>>thenApply(done -> ResponseEntity.ok("Transfer successful"))
+                        .exceptionally(e -> transferFailed(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e));
+            }
+
             transferService.transferBetweenOwnCards(user, request.getFromCardId(),
                     request.getToCardId(), request.getAmount());
 
-            return ResponseEntity.ok("Transfer successful");
+            return CompletableFuture.completedFuture(ResponseEntity.ok("Transfer successful"));
 
         } catch (RuntimeException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+            return CompletableFuture.completedFuture(transferFailed(e));
         }
     }
 
-    public static class TransferRequest {
-        private Long fromCardId;
-        private Long toCardId;
-        private BigDecimal amount;
-
-        public Long getFromCardId() {
-            return fromCardId;
+    // A rejected transfer is the client's problem (400); a full or stopped shard queue is temporary (503).
+    static ResponseEntity<?> transferFailed(Throwable e) {
+        if (e instanceof TransferException || e instanceof InsufficientFundsException
+                || e instanceof CardNotFoundException || e instanceof IllegalArgumentException) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
-
-        public void setFromCardId(Long fromCardId) {
-            this.fromCardId = fromCardId;
+        if (e instanceof RejectedExecutionException) {
+            return ResponseEntity.status(503)
+                    .header("Retry-After", String.valueOf(TRANSFER_RETRY_AFTER_SECONDS))
+                    .body(e.getMessage());
         }
+        log.error("Transfer failed", e);
+        return ResponseEntity.status(500).body("Transfer failed");
+    }
 
-        public Long getToCardId() {
-            return toCardId;
-        }
+    @PostMapping("/transfers/batch")
+    @Operation(summary = "Пакетный перевод между картами",
+            description = "Выполняет набор переводов между картами пользователя в одной транзакции и возвращает результат по каждому переводу")
+    public ResponseEntity<?> transferBatch(
+            @CurrentUser User user,
+            @RequestBody List<TransferRequest> requests) {
 
-        public void setToCardId(Long toCardId) {
-            this.toCardId = toCardId;
-        }
+        try {
+            List<TransferResult> results = transferService.transferBatch(user, requests);
 
-        public BigDecimal getAmount() {
-            return amount;
+            return ResponseEntity.ok(results);
+
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
         }
+    }
 
-        public void setAmount(BigDecimal amount) {
-            this.amount = amount;
+    static Sort parseSort(List<String> sort) {
+        if (sort == null || sort.isEmpty()) {
+            return Sort.unsorted();
+        }
+        List<Sort.Order> orders = new ArrayList<>();
+        for (String value : sort) {
+            String[] parts = value.split(",");
+            Sort.Direction direction = parts.length > 1 ? Sort.Direction.fromString(parts[1].trim()) : Sort.Direction.ASC;
+            orders.add(new Sort.Order(direction, parts[0].trim()));
         }
+        return Sort.by(orders);
     }
-}
\ No newline at end of file
+}
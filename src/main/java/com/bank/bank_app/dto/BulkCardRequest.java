@@ -0,0 +1,31 @@
+package com.bank.bank_app.dto;
+
+import java.math.BigDecimal;
+
+public class BulkCardRequest {
+    private Long userId;
+    private String ownerName;
+    private BigDecimal balance;
+    private int count = 1;
+
+    public BulkCardRequest() {}
+
+    public BulkCardRequest(Long userId, String ownerName, BigDecimal balance, int count) {
+        this.userId = userId;
+        this.ownerName = ownerName;
+        this.balance = balance;
+        this.count = count;
+    }
+
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+
+    public String getOwnerName() { return ownerName; }
+    public void setOwnerName(String ownerName) { this.ownerName = ownerName; }
+
+    public BigDecimal getBalance() { return balance; }
+    public void setBalance(BigDecimal balance) { this.balance = balance; }
+
+    public int getCount() { return count; }
+    public void setCount(int count) { this.count = count; }
+}
@@ -0,0 +1,19 @@
+package com.bank.bank_app.dto;
+
+import java.util.List;
+
+public class BulkIssueResult {
+    private final int issued;
+    private final List<Long> cardIds;
+    private final long elapsedMs;
+
+    public BulkIssueResult(List<Long> cardIds, long elapsedMs) {
+        this.issued = cardIds.size();
+        this.cardIds = cardIds;
+        this.elapsedMs = elapsedMs;
+    }
+
+    public int getIssued() { return issued; }
+    public List<Long> getCardIds() { return cardIds; }
+    public long getElapsedMs() { return elapsedMs; }
+}
@@ -0,0 +1,56 @@
+package com.bank.bank_app.dto;
+
+import com.bank.bank_app.entity.CardStatus;
+import io.swagger.v3.oas.annotations.Parameter;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class CardFilter {
+
+    @Parameter(description = "Фильтр по имени владельца")
+    private String ownerName;
+
+    @Parameter(description = "Фильтр по статусу карты")
+    private CardStatus status;
+
+    @Parameter(description = "Срок действия не раньше (yyyy-MM-dd)")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate expiryFrom;
+
+    @Parameter(description = "Срок действия не позже (yyyy-MM-dd)")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate expiryTo;
+
+    @Parameter(description = "Минимальный баланс")
+    private BigDecimal balanceMin;
+
+    @Parameter(description = "Максимальный баланс")
+    private BigDecimal balanceMax;
+
+    public CardFilter() {}
+
+    public CardFilter(String ownerName, CardStatus status) {
+        this.ownerName = ownerName;
+        this.status = status;
+    }
+
+    public String getOwnerName() { return ownerName; }
+    public void setOwnerName(String ownerName) { this.ownerName = ownerName; }
+
+    public CardStatus getStatus() { return status; }
+    public void setStatus(CardStatus status) { this.status = status; }
+
+    public LocalDate getExpiryFrom() { return expiryFrom; }
+    public void setExpiryFrom(LocalDate expiryFrom) { this.expiryFrom = expiryFrom; }
+
+    public LocalDate getExpiryTo() { return expiryTo; }
+    public void setExpiryTo(LocalDate expiryTo) { this.expiryTo = expiryTo; }
+
+    public BigDecimal getBalanceMin() { return balanceMin; }
+    public void setBalanceMin(BigDecimal balanceMin) { this.balanceMin = balanceMin; }
+
+    public BigDecimal getBalanceMax() { return balanceMax; }
+    public void setBalanceMax(BigDecimal balanceMax) { this.balanceMax = balanceMax; }
+}
@@ -0,0 +1,46 @@
+package com.bank.bank_app.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+public class CardSlice {
+
+    private static final String CURSOR_PREFIX = "id:";
+
+    private final List<CardView> content;
+    private final int size;
+    private final boolean hasNext;
+    private final String nextCursor;
+
+    public CardSlice(List<CardView> content, int size, boolean hasNext) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.nextCursor = hasNext && !content.isEmpty()
+                ? encodeCursor(content.get(content.size() - 1).getId())
+                : null;
+    }
+
+    public static String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static long decodeCursor(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(CURSOR_PREFIX)) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return Long.parseLong(decoded.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    public List<CardView> getContent() { return content; }
+    public int getSize() { return size; }
+    public boolean isHasNext() { return hasNext; }
+    public String getNextCursor() { return nextCursor; }
+}
@@ -0,0 +1,31 @@
+package com.bank.bank_app.dto;
+
+import java.util.List;
+
+/**
+ * One page of a card statement, newest entries first. nextCursor continues with older entries.
+ */
+public class CardStatement {
+
+    private final Long cardId;
+    private final List<CardTransactionView> content;
+    private final int size;
+    private final boolean hasNext;
+    private final String nextCursor;
+
+    public CardStatement(Long cardId, List<CardTransactionView> content, int size, boolean hasNext) {
+        this.cardId = cardId;
+        this.content = content;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.nextCursor = hasNext && !content.isEmpty()
+                ? CardSlice.encodeCursor(content.get(content.size() - 1).getId())
+                : null;
+    }
+
+    public Long getCardId() { return cardId; }
+    public List<CardTransactionView> getContent() { return content; }
+    public int getSize() { return size; }
+    public boolean isHasNext() { return hasNext; }
+    public String getNextCursor() { return nextCursor; }
+}
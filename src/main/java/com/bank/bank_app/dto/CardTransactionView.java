@@ -0,0 +1,29 @@
+package com.bank.bank_app.dto;
+
+import com.bank.bank_app.entity.CardTransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class CardTransactionView {
+    private final Long id;
+    private final BigDecimal amount;
+    private final CardTransactionType type;
+    private final Long counterpartyCardId;
+    private final LocalDateTime createdAt;
+
+    public CardTransactionView(Long id, BigDecimal amount, CardTransactionType type,
+                               Long counterpartyCardId, LocalDateTime createdAt) {
+        this.id = id;
+        this.amount = amount;
+        this.type = type;
+        this.counterpartyCardId = counterpartyCardId;
+        this.createdAt = createdAt;
+    }
+
+    public Long getId() { return id; }
+    public BigDecimal getAmount() { return amount; }
+    public CardTransactionType getType() { return type; }
+    public Long getCounterpartyCardId() { return counterpartyCardId; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
@@ -0,0 +1,47 @@
+package com.bank.bank_app.dto;
+
+import com.bank.bank_app.entity.CardStatus;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class CardView {
+
+    private static final String MASK_PREFIX = "**** **** **** ";
+    private static final String FULL_MASK = "**** **** **** ****";
+
+    private final Long id;
+    private final String cardNumber;
+    private final String ownerName;
+    private final LocalDate expiryDate;
+    private final BigDecimal balance;
+    private final CardStatus status;
+    private final Long userId;
+
+    // Used by JPQL constructor expressions in CardRepository, so the argument order matters.
+    public CardView(Long id, String cardLast4, String ownerName, LocalDate expiryDate,
+                    BigDecimal balance, CardStatus status, Long userId) {
+        this.id = id;
+        this.cardNumber = mask(cardLast4);
+        this.ownerName = ownerName;
+        this.expiryDate = expiryDate;
+        this.balance = balance;
+        this.status = status;
+        this.userId = userId;
+    }
+
+    public static String mask(String cardLast4) {
+        return cardLast4 != null ? MASK_PREFIX + cardLast4 : FULL_MASK;
+    }
+
+    public Long getId() { return id; }
+    public String getCardNumber() { return cardNumber; }
+    public String getOwnerName() { return ownerName; }
+    public LocalDate getExpiryDate() { return expiryDate; }
+    public BigDecimal getBalance() { return balance; }
+    public CardStatus getStatus() { return status; }
+
+    @JsonIgnore
+    public Long getUserId() { return userId; }
+}
@@ -0,0 +1,43 @@
+package com.bank.bank_app.dto;
+
+import java.util.Map;
+
+public class EndpointQueryStats {
+    private final String endpoint;
+    private final long requests;
+    private final long statements;
+    private final long maxStatementsPerRequest;
+    private final long totalTimeMs;
+    private final long maxStatementMs;
+    private final long slowQueries;
+    private final long suspectedNPlusOne;
+    private final Map<String, Long> latencyHistogram;
+
+    public EndpointQueryStats(String endpoint, long requests, long statements, long maxStatementsPerRequest,
+                              long totalTimeMs, long maxStatementMs, long slowQueries, long suspectedNPlusOne,
+                              Map<String, Long> latencyHistogram) {
+        this.endpoint = endpoint;
+        this.requests = requests;
+        this.statements = statements;
+        this.maxStatementsPerRequest = maxStatementsPerRequest;
+        this.totalTimeMs = totalTimeMs;
+        this.maxStatementMs = maxStatementMs;
+        this.slowQueries = slowQueries;
+        this.suspectedNPlusOne = suspectedNPlusOne;
+        this.latencyHistogram = latencyHistogram;
+    }
+
+    public String getEndpoint() { return endpoint; }
+    public long getRequests() { return requests; }
+    public long getStatements() { return statements; }
+    public long getMaxStatementsPerRequest() { return maxStatementsPerRequest; }
+    public long getTotalTimeMs() { return totalTimeMs; }
+    public long getMaxStatementMs() { return maxStatementMs; }
+    public long getSlowQueries() { return slowQueries; }
+    public long getSuspectedNPlusOne() { return suspectedNPlusOne; }
+    public Map<String, Long> getLatencyHistogram() { return latencyHistogram; }
+
+    public double getAvgStatementsPerRequest() {
+        return requests == 0 ? 0 : (double) statements / requests;
+    }
+}
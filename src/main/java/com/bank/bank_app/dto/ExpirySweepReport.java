@@ -0,0 +1,51 @@
+package com.bank.bank_app.dto;
+
+import java.time.LocalDate;
+
+public class ExpirySweepReport {
+    private final LocalDate today;
+    private final boolean dryRun;
+    private int chunks;
+    private long rowsScanned;
+    private long rowsUpdated;
+    private long totalChunkNanos;
+    private long maxChunkNanos;
+
+    public ExpirySweepReport(LocalDate today, boolean dryRun) {
+        this.today = today;
+        this.dryRun = dryRun;
+    }
+
+    public void recordChunk(long scanned, long updated, long elapsedNanos) {
+        chunks++;
+        rowsScanned += scanned;
+        rowsUpdated += updated;
+        totalChunkNanos += elapsedNanos;
+        maxChunkNanos = Math.max(maxChunkNanos, elapsedNanos);
+    }
+
+    public LocalDate getToday() { return today; }
+    public boolean isDryRun() { return dryRun; }
+    public int getChunks() { return chunks; }
+    public long getRowsScanned() { return rowsScanned; }
+    public long getRowsUpdated() { return rowsUpdated; }
+
+    public long getAvgChunkMillis() {
+        return chunks == 0 ? 0 : totalChunkNanos / chunks / 1_000_000;
+    }
+
+    public long getMaxChunkMillis() {
+        return maxChunkNanos / 1_000_000;
+    }
+
+    @Override
+    public String toString() {
+        return "ExpirySweepReport{today=" + today +
+                ", dryRun=" + dryRun +
+                ", chunks=" + chunks +
+                ", rowsScanned=" + rowsScanned +
+                ", rowsUpdated=" + rowsUpdated +
+                ", avgChunkMs=" + getAvgChunkMillis() +
+                ", maxChunkMs=" + getMaxChunkMillis() + "}";
+    }
+}
@@ -0,0 +1,17 @@
+package com.bank.bank_app.dto;
+
+public class IdempotentOutcome {
+    private final int statusCode;
+    private final String body;
+    private final boolean replayed;
+
+    public IdempotentOutcome(int statusCode, String body, boolean replayed) {
+        this.statusCode = statusCode;
+        this.body = body;
+        this.replayed = replayed;
+    }
+
+    public int getStatusCode() { return statusCode; }
+    public String getBody() { return body; }
+    public boolean isReplayed() { return replayed; }
+}
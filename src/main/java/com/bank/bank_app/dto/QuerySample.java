@@ -0,0 +1,30 @@
+package com.bank.bank_app.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class QuerySample {
+    private final LocalDateTime at;
+    private final String endpoint;
+    private final String sql;
+    private final List<String> bindShape;
+    private final long durationMs;
+    private final int executions;
+
+    public QuerySample(LocalDateTime at, String endpoint, String sql, List<String> bindShape,
+                       long durationMs, int executions) {
+        this.at = at;
+        this.endpoint = endpoint;
+        this.sql = sql;
+        this.bindShape = bindShape;
+        this.durationMs = durationMs;
+        this.executions = executions;
+    }
+
+    public LocalDateTime getAt() { return at; }
+    public String getEndpoint() { return endpoint; }
+    public String getSql() { return sql; }
+    public List<String> getBindShape() { return bindShape; }
+    public long getDurationMs() { return durationMs; }
+    public int getExecutions() { return executions; }
+}
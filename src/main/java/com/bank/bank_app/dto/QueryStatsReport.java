@@ -0,0 +1,26 @@
+package com.bank.bank_app.dto;
+
+import java.util.List;
+
+public class QueryStatsReport {
+    private final long slowQueryMs;
+    private final int repeatedShapeThreshold;
+    private final List<EndpointQueryStats> endpoints;
+    private final List<QuerySample> slowQueries;
+    private final List<QuerySample> suspectedNPlusOne;
+
+    public QueryStatsReport(long slowQueryMs, int repeatedShapeThreshold, List<EndpointQueryStats> endpoints,
+                            List<QuerySample> slowQueries, List<QuerySample> suspectedNPlusOne) {
+        this.slowQueryMs = slowQueryMs;
+        this.repeatedShapeThreshold = repeatedShapeThreshold;
+        this.endpoints = endpoints;
+        this.slowQueries = slowQueries;
+        this.suspectedNPlusOne = suspectedNPlusOne;
+    }
+
+    public long getSlowQueryMs() { return slowQueryMs; }
+    public int getRepeatedShapeThreshold() { return repeatedShapeThreshold; }
+    public List<EndpointQueryStats> getEndpoints() { return endpoints; }
+    public List<QuerySample> getSlowQueries() { return slowQueries; }
+    public List<QuerySample> getSuspectedNPlusOne() { return suspectedNPlusOne; }
+}
@@ -0,0 +1,41 @@
+package com.bank.bank_app.dto;
+
+import java.math.BigDecimal;
+
+public class TransferRequest {
+    private Long fromCardId;
+    private Long toCardId;
+    private BigDecimal amount;
+
+    public TransferRequest() {}
+
+    public TransferRequest(Long fromCardId, Long toCardId, BigDecimal amount) {
+        this.fromCardId = fromCardId;
+        this.toCardId = toCardId;
+        this.amount = amount;
+    }
+
+    public Long getFromCardId() {
+        return fromCardId;
+    }
+
+    public void setFromCardId(Long fromCardId) {
+        this.fromCardId = fromCardId;
+    }
+
+    public Long getToCardId() {
+        return toCardId;
+    }
+
+    public void setToCardId(Long toCardId) {
+        this.toCardId = toCardId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+}
@@ -0,0 +1,36 @@
+package com.bank.bank_app.dto;
+
+import java.math.BigDecimal;
+
+public class TransferResult {
+    private final int index;
+    private final Long fromCardId;
+    private final Long toCardId;
+    private final BigDecimal amount;
+    private final boolean success;
+    private final String message;
+
+    private TransferResult(int index, TransferRequest request, boolean success, String message) {
+        this.index = index;
+        this.fromCardId = request.getFromCardId();
+        this.toCardId = request.getToCardId();
+        this.amount = request.getAmount();
+        this.success = success;
+        this.message = message;
+    }
+
+    public static TransferResult success(int index, TransferRequest request) {
+        return new TransferResult(index, request, true, "Transfer successful");
+    }
+
+    public static TransferResult failure(int index, TransferRequest request, String message) {
+        return new TransferResult(index, request, false, message);
+    }
+
+    public int getIndex() { return index; }
+    public Long getFromCardId() { return fromCardId; }
+    public Long getToCardId() { return toCardId; }
+    public BigDecimal getAmount() { return amount; }
+    public boolean isSuccess() { return success; }
+    public String getMessage() { return message; }
+}
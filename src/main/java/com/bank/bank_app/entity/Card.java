@@ -2,35 +2,65 @@ package com.bank.bank_app.entity;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Formula;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
+// Short-TTL region (application.conf). Balance updates that bypass Hibernate evict the affected ids,
+// see CardService.evictCards.
 @Entity
 @Table(name = "cards")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "cards")
 public class Card {
 
+    // Pooled sequence (increment 50 in the database) so inserts can be JDBC-batched
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cards_seq")
+    @SequenceGenerator(name = "cards_seq", sequenceName = "cards_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "card_number", nullable = false, length = 16)
     private String cardNumber;
 
+    @JsonIgnore
+    @Column(name = "card_last4", length = 4)
+    private String cardLast4;
+
+    @JsonIgnore
+    @Column(name = "card_number_hash", length = 64, unique = true)
+    private String cardNumberHash;
+
     @Column(name = "owner_name", nullable = false)
     private String ownerName;
 
     @Column(name = "expiry_date", nullable = false)
     private LocalDate expiryDate;
 
-    @Column(nullable = false)
+    // For a hot card part of the balance sits in card_balance_stripes (see HotCardBalanceService):
+    // this field is the cards.balance column, getBalance() is the total.
+    // Written only on insert: saving a card (block, activate) must not write back a stale cached balance,
+    // all changes are atomic deltas (CardService.adjustBalance, applyBalanceDeltas).
+    @Column(nullable = false, updatable = false)
     private BigDecimal balance;
 
+    @JsonIgnore
+    @Column(name = "balance_stripes", nullable = false, insertable = false, updatable = false)
+    private int balanceStripes;
+
+    @JsonIgnore
+    @Formula("(CASE WHEN balance_stripes > 0 THEN " +
+            "(SELECT COALESCE(SUM(s.amount), 0) FROM card_balance_stripes s WHERE s.card_id = id) ELSE 0 END)")
+    private BigDecimal stripedBalance;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private CardStatus status;
 
     @JsonIgnore
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
@@ -50,6 +80,22 @@ public class Card {
         this.cardNumber = cardNumber;
     }
 
+    public String getCardLast4() {
+        return cardLast4;
+    }
+
+    public void setCardLast4(String cardLast4) {
+        this.cardLast4 = cardLast4;
+    }
+
+    public String getCardNumberHash() {
+        return cardNumberHash;
+    }
+
+    public void setCardNumberHash(String cardNumberHash) {
+        this.cardNumberHash = cardNumberHash;
+    }
+
     public String getOwnerName() {
         return ownerName;
     }
@@ -67,13 +113,16 @@ public class Card {
     }
 
     public BigDecimal getBalance() {
-        return balance;
+        return balance != null && stripedBalance != null ? balance.add(stripedBalance) : balance;
     }
 
+    // Initial balance of a new card; it has no stripes yet.
     public void setBalance(BigDecimal balance) {
         this.balance = balance;
     }
 
+    public int getBalanceStripes() { return balanceStripes; }
+
     public CardStatus getStatus() {
         return status;
     }
@@ -84,4 +133,7 @@ public class Card {
 
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
+
+    // The id of a lazy proxy is known without initializing it, so ownership checks stay on user_id.
+    public Long getUserId() { return user != null ? user.getId() : null; }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package com.bank.bank_app.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One balance change of a card. Rows are only ever inserted; the card balance at any moment
+ * is the sum of its entries.
+ */
+@Entity
+@Table(name = "card_transactions")
+public class CardTransaction {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "card_id", nullable = false)
+    private Long cardId;
+
+    @Column(name = "counterparty_card_id")
+    private Long counterpartyCardId;
+
+    // Signed: negative for debits
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CardTransactionType type;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getCardId() { return cardId; }
+    public void setCardId(Long cardId) { this.cardId = cardId; }
+
+    public Long getCounterpartyCardId() { return counterpartyCardId; }
+    public void setCounterpartyCardId(Long counterpartyCardId) { this.counterpartyCardId = counterpartyCardId; }
+
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+
+    public CardTransactionType getType() { return type; }
+    public void setType(CardTransactionType type) { this.type = type; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,8 @@
+package com.bank.bank_app.entity;
+
+public enum CardTransactionType {
+    OPENING,
+    TRANSFER_IN,
+    TRANSFER_OUT,
+    ADJUSTMENT
+}
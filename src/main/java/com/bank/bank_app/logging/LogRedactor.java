@@ -0,0 +1,65 @@
+package com.bank.bank_app.logging;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Masks card numbers and bearer/JWT tokens in log text. Every 13-19 digit run (optionally
+ * split by spaces or dashes) is treated as a PAN and reduced to its last four digits.
+ */
+public final class LogRedactor {
+
+    private static final Pattern PAN = Pattern.compile("(?<!\\d)\\d(?:[ -]?\\d){12,18}(?!\\d)");
+    private static final Pattern BEARER = Pattern.compile("(?i)(bearer\\s+)[^\\s,;\"']+");
+    private static final Pattern JWT = Pattern.compile("eyJ[A-Za-z0-9_-]*\\.[A-Za-z0-9_-]+\\.[A-Za-z0-9_-]*");
+
+    static final String TOKEN_MASK = "[REDACTED]";
+
+    private LogRedactor() {
+    }
+
+    public static String redact(String text) {
+        if (text == null || text.isEmpty() || !mayContainSecret(text)) {
+            return text;
+        }
+        String result = BEARER.matcher(text).replaceAll("$1" + TOKEN_MASK);
+        result = JWT.matcher(result).replaceAll(TOKEN_MASK);
+        return maskPans(result);
+    }
+
+    // Cheap scan so that ordinary messages never touch the regex engine.
+    static boolean mayContainSecret(String text) {
+        int digits = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (++digits >= 13) {
+                    return true;
+                }
+            } else if (c != ' ' && c != '-') {
+                digits = 0;
+            }
+            if (c == 'e' && text.startsWith("eyJ", i)) {
+                return true;
+            }
+            if ((c == 'b' || c == 'B') && text.regionMatches(true, i, "bearer", 0, 6)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String maskPans(String text) {
+        Matcher matcher = PAN.matcher(text);
+        if (!matcher.find()) {
+            return text;
+        }
+        StringBuilder sb = new StringBuilder(text.length());
+        do {
+            String digits = matcher.group().replaceAll("[ -]", "");
+            matcher.appendReplacement(sb, "****" + digits.substring(digits.length() - 4));
+        } while (matcher.find());
+        matcher.appendTail(sb);
+        return sb.toString();
+    }
+}
@@ -0,0 +1,15 @@
+package com.bank.bank_app.logging;
+
+import ch.qos.logback.classic.pattern.MessageConverter;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * {@code %redactedMsg}: the formatted message with PANs and tokens masked.
+ */
+public class RedactingMessageConverter extends MessageConverter {
+
+    @Override
+    public String convert(ILoggingEvent event) {
+        return LogRedactor.redact(super.convert(event));
+    }
+}
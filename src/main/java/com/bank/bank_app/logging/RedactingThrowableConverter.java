@@ -0,0 +1,16 @@
+package com.bank.bank_app.logging;
+
+import ch.qos.logback.classic.spi.IThrowableProxy;
+import org.springframework.boot.logging.logback.ExtendedWhitespaceThrowableProxyConverter;
+
+/**
+ * {@code %redactedEx}: Boot's default stack trace rendering with PANs and tokens masked,
+ * since exception messages may echo request data.
+ */
+public class RedactingThrowableConverter extends ExtendedWhitespaceThrowableProxyConverter {
+
+    @Override
+    protected String throwableProxyToString(IThrowableProxy tp) {
+        return LogRedactor.redact(super.throwableProxyToString(tp));
+    }
+}
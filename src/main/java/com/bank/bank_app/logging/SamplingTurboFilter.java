@@ -0,0 +1,85 @@
+package com.bank.bank_app.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Samples and rate-limits events of one logger category before any message formatting happens.
+ * Only events at or below {@code maxLevel} (INFO by default) are affected, so warnings and
+ * errors always get through. Configured once per category in logback-spring.xml.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    private String loggerPrefix = "";
+    private int sampleRate = 1;
+    private int maxPerSecond;
+    private Level maxLevel = Level.INFO;
+
+    private final AtomicLong sequence = new AtomicLong();
+    // Upper 32 bits: epoch second of the current window, lower 32 bits: events passed in it.
+    private final AtomicLong window = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        // isXxxEnabled() checks arrive with a null format; only real events are counted.
+        if (!isStarted() || format == null || level == null || level.levelInt > maxLevel.levelInt
+                || !logger.getName().startsWith(loggerPrefix)
+                || level.levelInt < logger.getEffectiveLevel().levelInt) {
+            return FilterReply.NEUTRAL;
+        }
+        if (sampleRate > 1 && sequence.getAndIncrement() % sampleRate != 0) {
+            dropped.incrementAndGet();
+            return FilterReply.DENY;
+        }
+        if (maxPerSecond > 0 && !tryAcquire(System.currentTimeMillis() / 1000)) {
+            dropped.incrementAndGet();
+            return FilterReply.DENY;
+        }
+        return FilterReply.NEUTRAL;
+    }
+
+    private boolean tryAcquire(long second) {
+        while (true) {
+            long current = window.get();
+            long currentSecond = current >>> 32;
+            long count = current & 0xFFFFFFFFL;
+            long next;
+            if (currentSecond != second) {
+                next = (second << 32) | 1;
+            } else if (count < maxPerSecond) {
+                next = current + 1;
+            } else {
+                return false;
+            }
+            if (window.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    public void setLoggerPrefix(String loggerPrefix) {
+        this.loggerPrefix = loggerPrefix;
+    }
+
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = Math.max(1, sampleRate);
+    }
+
+    public void setMaxPerSecond(int maxPerSecond) {
+        this.maxPerSecond = Math.max(0, maxPerSecond);
+    }
+
+    public void setMaxLevel(String maxLevel) {
+        this.maxLevel = Level.toLevel(maxLevel, Level.INFO);
+    }
+}
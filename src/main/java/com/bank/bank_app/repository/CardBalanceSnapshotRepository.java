@@ -0,0 +1,14 @@
+package com.bank.bank_app.repository;
+
+import com.bank.bank_app.entity.CardBalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface CardBalanceSnapshotRepository extends JpaRepository<CardBalanceSnapshot, Long> {
+
+    Optional<CardBalanceSnapshot> findFirstByCardIdAndAsOfLessThanEqualOrderByAsOfDesc(Long cardId, LocalDateTime asOf);
+}
@@ -1,30 +1,41 @@
 package com.bank.bank_app.repository;
 
+import com.bank.bank_app.dto.CardView;
 import com.bank.bank_app.entity.Card;
-import com.bank.bank_app.entity.CardStatus;
-import com.bank.bank_app.entity.User;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CardRepository extends JpaRepository<Card, Long> {
+public interface CardRepository extends JpaRepository<Card, Long>, CardViewRepository {
 
-    List<Card> findByUser(User user);
+    String CARD_VIEW = "SELECT new com.bank.bank_app.dto.CardView(" +
+            "c.id, c.cardLast4, c.ownerName, c.expiryDate, c.balance + c.stripedBalance, c.status, c.user.id) FROM Card c ";
 
-    Page<Card> findByUser(User user, Pageable pageable);
+    Optional<Card> findByCardNumberHash(String cardNumberHash);
 
-    Optional<Card> findByCardNumber(String cardNumber);
+    boolean existsByCardNumberHash(String cardNumberHash);
 
-    boolean existsByCardNumber(String cardNumber);
+    @Query("SELECT c.cardNumberHash FROM Card c WHERE c.cardNumberHash IN :hashes")
+    List<String> findExistingHashes(@Param("hashes") Collection<String> hashes);
 
-    List<Card> findByUserAndStatus(User user, CardStatus status);
+    boolean existsByIdAndUserId(Long id, Long userId);
 
-    Page<Card> findByUserAndOwnerNameContainingIgnoreCase(User user, String ownerName, Pageable pageable);
-    Page<Card> findByUserAndStatus(User user, CardStatus status, Pageable pageable);
-    Page<Card> findByUserAndOwnerNameContainingIgnoreCaseAndStatus(User user, String ownerName, CardStatus status, Pageable pageable);
+    @Query(value = CARD_VIEW + "WHERE c.id = :id")
+    Optional<CardView> findViewById(@Param("id") Long id);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Card c WHERE c.id IN :ids ORDER BY c.id")
+    List<Card> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    @Lock(LockModeType.PESSIMISTIC_READ)
+    @Query("SELECT c FROM Card c WHERE c.id IN :ids ORDER BY c.id")
+    List<Card> findAllByIdForShare(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
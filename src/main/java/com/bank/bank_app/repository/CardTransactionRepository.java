@@ -0,0 +1,31 @@
+package com.bank.bank_app.repository;
+
+import com.bank.bank_app.dto.CardTransactionView;
+import com.bank.bank_app.entity.CardTransaction;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CardTransactionRepository extends JpaRepository<CardTransaction, Long> {
+
+    @Query("SELECT new com.bank.bank_app.dto.CardTransactionView(t.id, t.amount, t.type, t.counterpartyCardId, t.createdAt) " +
+            "FROM CardTransaction t WHERE t.cardId = :cardId AND t.id < :beforeId ORDER BY t.id DESC")
+    List<CardTransactionView> findStatement(@Param("cardId") Long cardId, @Param("beforeId") long beforeId, Pageable pageable);
+
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM CardTransaction t " +
+            "WHERE t.cardId = :cardId AND t.createdAt > :from AND t.createdAt <= :to")
+    BigDecimal sumBetween(@Param("cardId") Long cardId, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    @Query("SELECT COALESCE(SUM(t.amount), 0) FROM CardTransaction t WHERE t.cardId = :cardId AND t.createdAt <= :to")
+    BigDecimal sumUpTo(@Param("cardId") Long cardId, @Param("to") LocalDateTime to);
+
+    @Query("SELECT MIN(t.createdAt) FROM CardTransaction t WHERE t.cardId = :cardId")
+    LocalDateTime firstEntryAt(@Param("cardId") Long cardId);
+}
@@ -0,0 +1,15 @@
+package com.bank.bank_app.repository;
+
+import com.bank.bank_app.dto.CardView;
+import com.bank.bank_app.entity.Card;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+
+public interface CardViewRepository {
+
+    Page<CardView> findViews(Specification<Card> spec, Pageable pageable);
+
+    Slice<CardView> findViewSlice(Specification<Card> spec, Pageable pageable);
+}
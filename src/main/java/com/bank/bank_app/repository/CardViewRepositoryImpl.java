@@ -0,0 +1,102 @@
+package com.bank.bank_app.repository;
+
+import com.bank.bank_app.dto.CardView;
+import com.bank.bank_app.entity.Card;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+public class CardViewRepositoryImpl implements CardViewRepository {
+
+    // Sorting is limited to a whitelist and a few columns to keep the set of statement shapes small.
+    static final Set<String> SORTABLE_PROPERTIES = Set.of("id", "ownerName", "expiryDate", "balance", "status");
+    static final int MAX_SORT_ORDERS = 3;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Page<CardView> findViews(Specification<Card> spec, Pageable pageable) {
+        List<CardView> content = select(spec, pageable, pageable.getPageSize());
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    @Override
+    public Slice<CardView> findViewSlice(Specification<Card> spec, Pageable pageable) {
+        List<CardView> rows = select(spec, pageable, pageable.getPageSize() + 1);
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<CardView> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    private List<CardView> select(Specification<Card> spec, Pageable pageable, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<CardView> query = cb.createQuery(CardView.class);
+        Root<Card> root = query.from(Card.class);
+
+        query.select(cb.construct(CardView.class,
+                root.get("id"), root.get("cardLast4"), root.get("ownerName"), root.get("expiryDate"),
+                CardSpecifications.totalBalance(root, cb), root.get("status"), root.get("user").get("id")));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(orders(root, cb, pageable.getSort()));
+
+        return entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    private long count(Specification<Card> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Card> root = query.from(Card.class);
+
+        query.select(cb.count(root));
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    private List<Order> orders(Root<Card> root, CriteriaBuilder cb, Sort sort) {
+        List<Order> orders = new ArrayList<>();
+        boolean sortedById = false;
+        for (Sort.Order order : sort) {
+            String property = order.getProperty();
+            if (!SORTABLE_PROPERTIES.contains(property)) {
+                throw new IllegalArgumentException("Unsupported sort property: " + property);
+            }
+            if (orders.size() == MAX_SORT_ORDERS) {
+                throw new IllegalArgumentException("At most " + MAX_SORT_ORDERS + " sort properties are supported");
+            }
+            Expression<?> expression = property.equals("balance") ? CardSpecifications.totalBalance(root, cb) : root.get(property);
+            orders.add(order.isAscending() ? cb.asc(expression) : cb.desc(expression));
+            sortedById |= property.equals("id");
+        }
+        // id as the final tie-breaker keeps page boundaries stable.
+        if (!sortedById) {
+            orders.add(cb.asc(root.get("id")));
+        }
+        return orders;
+    }
+}
@@ -0,0 +1,37 @@
+package com.bank.bank_app.repository;
+
+import com.bank.bank_app.entity.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, Long> {
+
+    Optional<IdempotencyRecord> findByUserIdAndIdempotencyKey(Long userId, String idempotencyKey);
+
+    // Row-locks an in-progress reservation for the transaction that runs it; 0 if it was taken over.
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.expiresAt = :leaseUntil WHERE r.id = :id AND r.statusCode IS NULL")
+    int claim(@Param("id") Long id, @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.statusCode = :statusCode, r.responseBody = :body, " +
+            "r.expiresAt = :expiresAt WHERE r.id = :id")
+    int complete(@Param("id") Long id, @Param("statusCode") int statusCode, @Param("body") String body,
+                 @Param("expiresAt") LocalDateTime expiresAt);
+
+    // Waits for a transaction holding the row and re-checks, so a reservation completed meanwhile stays.
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.expiresAt < :now")
+    int deleteIfExpired(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
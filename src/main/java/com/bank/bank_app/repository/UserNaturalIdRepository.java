@@ -0,0 +1,13 @@
+package com.bank.bank_app.repository;
+
+import com.bank.bank_app.entity.User;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+public interface UserNaturalIdRepository {
+
+    // Resolved through the natural-id cache instead of a derived query.
+    @Transactional(readOnly = true)
+    Optional<User> findByUsername(String username);
+}
@@ -0,0 +1,101 @@
+package com.bank.bank_app.service;
+
+import com.bank.bank_app.entity.Card;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fills card_last4 and card_number_hash for cards created before those columns existed.
+ * Runs once at startup in chunks; afterwards reads never need to decrypt the PAN.
+ * Only the two new columns are written, so a transfer changing the balance meanwhile is not overwritten.
+ */
+@Component
+public class CardBlindIndexBackfill implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(CardBlindIndexBackfill.class);
+
+    private static final String NEXT_CHUNK_SQL =
+            "SELECT id, card_number FROM cards WHERE card_last4 IS NULL AND id > ? ORDER BY id LIMIT ?";
+
+    private static final String FILL_SQL =
+            "UPDATE cards SET card_last4 = ?, card_number_hash = ? WHERE id = ? AND card_last4 IS NULL";
+
+    private static final int CHUNK_SIZE = 500;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${app.encryption.backfill-enabled:true}")
+    private boolean enabled;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+
+        long afterId = 0;
+        long filled = 0;
+        while (true) {
+            long fromId = afterId;
+            List<EncryptedCard> chunk = jdbcTemplate.query(NEXT_CHUNK_SQL,
+                    (rs, rowNum) -> new EncryptedCard(rs.getLong("id"), rs.getString("card_number")), fromId, CHUNK_SIZE);
+            if (chunk.isEmpty()) {
+                break;
+            }
+            List<Long> updated = transactionTemplate.execute(status -> {
+                List<Long> changed = new ArrayList<>();
+                for (EncryptedCard card : chunk) {
+                    try {
+                        String cardNumber = encryptionService.decrypt(card.cardNumber());
+                        if (jdbcTemplate.update(FILL_SQL, EncryptionService.last4(cardNumber),
+                                encryptionService.blindIndex(cardNumber), card.id()) > 0) {
+                            changed.add(card.id());
+                        }
+                    } catch (RuntimeException e) {
+                        log.warn("Cannot backfill card {}", card.id(), e);
+                    }
+                }
+                return changed;
+            });
+            if (updated != null) {
+                evict(updated);
+                filled += updated.size();
+            }
+            afterId = chunk.get(chunk.size() - 1).id();
+        }
+
+        if (filled > 0) {
+            log.info("Backfilled last4 and blind index for {} card(s)", filled);
+        }
+    }
+
+    // After commit, so a concurrent read cannot put the card without last4 back into the cache.
+    private void evict(List<Long> ids) {
+        Cache cache = entityManagerFactory.getCache();
+        ids.forEach(id -> cache.evict(Card.class, id));
+    }
+
+    private record EncryptedCard(long id, String cardNumber) {}
+}
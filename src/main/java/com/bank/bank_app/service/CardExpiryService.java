@@ -0,0 +1,132 @@
+package com.bank.bank_app.service;
+
+import com.bank.bank_app.dto.ExpirySweepReport;
+import com.bank.bank_app.entity.Card;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Marks expired cards in chunks. Only candidates (status <> 'EXPIRED' AND expiry_date < today) are
+ * visited, walked by keyset in (expiry_date, id) order on the partial index idx_cards_expiry_candidates,
+ * so the cost follows the number of cards to expire rather than the size of the table.
+ * Every chunk runs in its own transaction. The update is plain SQL that returns the ids it changed, so
+ * only those cards are evicted from the second-level cache (a JPQL bulk update would clear the region).
+ */
+@Service
+public class CardExpiryService {
+
+    private static final Logger log = LoggerFactory.getLogger(CardExpiryService.class);
+
+    // Keyset start, earlier than any expiry date.
+    private static final LocalDate BEFORE_ANY_EXPIRY = LocalDate.of(1, 1, 1);
+
+    // expiry_date >= ? repeats the leading column of the row comparison so the index range starts there.
+    public static final String NEXT_CHUNK_SQL =
+            "SELECT expiry_date, id FROM cards " +
+            "WHERE status <> 'EXPIRED' AND expiry_date < ? AND expiry_date >= ? AND (expiry_date, id) > (?, ?) " +
+            "ORDER BY expiry_date, id LIMIT ?";
+
+    public static final String EXPIRE_CHUNK_SQL =
+            "UPDATE cards SET status = 'EXPIRED' " +
+            "WHERE status <> 'EXPIRED' AND expiry_date < ? AND expiry_date >= ? AND (expiry_date, id) > (?, ?) " +
+            "AND expiry_date <= ? AND (expiry_date, id) <= (?, ?) RETURNING id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.expiry.chunk-size:1000}")
+    private int chunkSize = 1000;
+
+    @Value("${app.expiry.dry-run:false}")
+    private boolean dryRun;
+
+    public ExpirySweepReport expireCards(LocalDate today) {
+        return expireCards(today, dryRun);
+    }
+
+    public ExpirySweepReport expireCards(LocalDate today, boolean dryRun) {
+        ExpirySweepReport report = new ExpirySweepReport(today, dryRun);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        LocalDate afterDate = BEFORE_ANY_EXPIRY;
+        long afterId = 0;
+
+        while (true) {
+            long start = System.nanoTime();
+            List<ExpiryKey> chunk = jdbcTemplate.query(NEXT_CHUNK_SQL,
+                    (rs, rowNum) -> new ExpiryKey(rs.getObject("expiry_date", LocalDate.class), rs.getLong("id")),
+                    today, afterDate, afterDate, afterId, chunkSize);
+            if (chunk.isEmpty()) {
+                break;
+            }
+
+            ExpiryKey last = chunk.get(chunk.size() - 1);
+            LocalDate fromDate = afterDate;
+            long fromId = afterId;
+            int updated;
+            if (dryRun) {
+                updated = chunk.size();
+            } else {
+                List<Long> expired = transactionTemplate.execute(status -> jdbcTemplate.queryForList(
+                        EXPIRE_CHUNK_SQL, Long.class, today, fromDate, fromDate, fromId,
+                        last.expiryDate(), last.expiryDate(), last.id()));
+                updated = expired != null ? expired.size() : 0;
+                if (updated > 0) {
+                    evict(expired);
+                }
+            }
+
+            report.recordChunk(chunk.size(), updated, System.nanoTime() - start);
+            log.debug("Expiry chunk ({} #{}, {} #{}]: {} card(s)", fromDate, fromId, last.expiryDate(), last.id(), updated);
+
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+            afterDate = last.expiryDate();
+            afterId = last.id();
+        }
+
+        sample.stop(Timer.builder("bank.expiry.sweep")
+                .description("Card expiry sweep")
+                .tag("dry_run", String.valueOf(dryRun))
+                .register(meterRegistry));
+        if (!dryRun) {
+            Counter.builder("bank.expiry.cards.expired")
+                    .description("Cards marked EXPIRED by the sweep")
+                    .register(meterRegistry)
+                    .increment(report.getRowsUpdated());
+        }
+
+        log.info("Expiry sweep finished: {}", report);
+        return report;
+    }
+
+    // After commit, so a concurrent read cannot put the old status back into the cache.
+    private void evict(List<Long> ids) {
+        Cache cache = entityManagerFactory.getCache();
+        ids.forEach(id -> cache.evict(Card.class, id));
+    }
+
+    record ExpiryKey(LocalDate expiryDate, long id) {}
+}
@@ -0,0 +1,270 @@
+package com.bank.bank_app.service;
+
+import com.bank.bank_app.dto.CardView;
+import com.bank.bank_app.entity.CardStatus;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams cards and ledger entries to an OutputStream for admin exports.
+ * Rows come from a forward-only JDBC cursor (fetch-size rows at a time, inside a read-only
+ * transaction so PostgreSQL keeps the cursor open) and go straight to the writer, so nothing is
+ * collected in memory and no entities enter the persistence context. PANs are written masked from
+ * card_last4; only cards not yet backfilled with last4 are decrypted.
+ */
+@Service
+public class CardExportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CardExportService.class);
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private static final String[] CARD_COLUMNS =
+            {"id", "userId", "cardNumber", "ownerName", "expiryDate", "balance", "status"};
+    private static final String CARD_QUERY =
+            "SELECT id, user_id, card_last4, CASE WHEN card_last4 IS NULL THEN card_number END AS card_number, " +
+            "owner_name, expiry_date, balance + CASE WHEN balance_stripes > 0 THEN " +
+            "(SELECT COALESCE(SUM(s.amount), 0) FROM card_balance_stripes s WHERE s.card_id = cards.id) ELSE 0 END " +
+            "AS balance, status FROM cards";
+
+    private static final String[] LEDGER_COLUMNS =
+            {"id", "cardId", "counterpartyCardId", "amount", "type", "createdAt"};
+    private static final String LEDGER_QUERY =
+            "SELECT id, card_id, counterparty_card_id, amount, type, created_at FROM card_transactions";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Value("${app.export.fetch-size:1000}")
+    private int fetchSize = 1000;
+
+    @Transactional(readOnly = true)
+    public long exportCards(ExportFormat format, CardStatus status, OutputStream out) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder(CARD_QUERY);
+        if (status != null) {
+            sql.append(" WHERE status = ?");
+            args.add(status.name());
+        }
+        sql.append(" ORDER BY id");
+
+        return export("cards", sql.toString(), args, CARD_COLUMNS, format, out, rs -> new Object[]{
+                rs.getLong("id"),
+                nullableLong(rs, "user_id"),
+                maskedNumber(rs.getLong("id"), rs.getString("card_last4"), rs.getString("card_number")),
+                rs.getString("owner_name"),
+                toText(rs.getDate("expiry_date")),
+                rs.getBigDecimal("balance"),
+                rs.getString("status")
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public long exportLedger(ExportFormat format, Long cardId, LocalDateTime from, LocalDateTime to, OutputStream out) {
+        List<String> conditions = new ArrayList<>();
+        List<Object> args = new ArrayList<>();
+        if (cardId != null) {
+            conditions.add("card_id = ?");
+            args.add(cardId);
+        }
+        if (from != null) {
+            conditions.add("created_at >= ?");
+            args.add(Timestamp.valueOf(from));
+        }
+        if (to != null) {
+            conditions.add("created_at < ?");
+            args.add(Timestamp.valueOf(to));
+        }
+        String sql = LEDGER_QUERY
+                + (conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions))
+                + " ORDER BY id";
+
+        return export("ledger", sql, args, LEDGER_COLUMNS, format, out, rs -> new Object[]{
+                rs.getLong("id"),
+                rs.getLong("card_id"),
+                nullableLong(rs, "counterparty_card_id"),
+                rs.getBigDecimal("amount"),
+                rs.getString("type"),
+                toText(rs.getTimestamp("created_at"))
+        });
+    }
+
+    private long export(String name, String sql, List<Object> args, String[] columns, ExportFormat format,
+                        OutputStream out, RowExtractor extractor) {
+        long started = System.nanoTime();
+        try {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+            RowWriter rows = format == ExportFormat.NDJSON ? new NdjsonRowWriter(writer, columns) : new CsvRowWriter(writer, columns);
+            long[] count = {0};
+
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                new ArgumentPreparedStatementSetter(args.toArray()).setValues(ps);
+                return ps;
+            }, (RowCallbackHandler) rs -> {
+                try {
+                    rows.write(extractor.extract(rs));
+                    count[0]++;
+                } catch (IOException e) {
+                    // Usually the client went away; abandon the cursor.
+                    throw new UncheckedIOException(e);
+                }
+            });
+
+            rows.finish();
+            writer.flush();
+            log.info("Exported {} {} row(s) as {} in {} ms", count[0], name, format,
+                    (System.nanoTime() - started) / 1_000_000);
+            return count[0];
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String maskedNumber(long cardId, String last4, String encryptedNumber) {
+        if (last4 != null || encryptedNumber == null) {
+            return CardView.mask(last4);
+        }
+        try {
+            return CardView.mask(EncryptionService.last4(encryptionService.decrypt(encryptedNumber)));
+        } catch (Exception e) {
+            log.warn("Cannot resolve last4 for card {}: {}", cardId, e.getMessage());
+            return CardView.mask(null);
+        }
+    }
+
+    private static Long nullableLong(ResultSet rs, String column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static String toText(Date date) {
+        return date != null ? date.toLocalDate().toString() : null;
+    }
+
+    private static String toText(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime().toString() : null;
+    }
+
+    static String csvField(Object value) {
+        if (value == null) {
+            return "";
+        }
+        String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + text.replace("\"", "\"\"") + '"';
+            }
+        }
+        return text;
+    }
+
+    @FunctionalInterface
+    private interface RowExtractor {
+        Object[] extract(ResultSet rs) throws SQLException;
+    }
+
+    private interface RowWriter {
+        void write(Object[] values) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    private static class CsvRowWriter implements RowWriter {
+
+        private final Writer writer;
+
+        CsvRowWriter(Writer writer, String[] columns) throws IOException {
+            this.writer = writer;
+            write(columns);
+        }
+
+        @Override
+        public void write(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writer.write(csvField(values[i]));
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void finish() {
+        }
+    }
+
+    private static class NdjsonRowWriter implements RowWriter {
+
+        private final JsonGenerator generator;
+        private final String[] columns;
+        private boolean written;
+
+        NdjsonRowWriter(Writer writer, String[] columns) throws IOException {
+            this.generator = JSON.createGenerator(writer);
+            this.generator.setRootValueSeparator(new SerializedString("\n"));
+            this.columns = columns;
+        }
+
+        @Override
+        public void write(Object[] values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                generator.writeFieldName(columns[i]);
+                Object value = values[i];
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Long number) {
+                    generator.writeNumber(number);
+                } else if (value instanceof BigDecimal decimal) {
+                    generator.writeNumber(decimal);
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            written = true;
+        }
+
+        @Override
+        public void finish() throws IOException {
+            if (written) {
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.bank.bank_app.service;
+
+import com.bank.bank_app.dto.BulkCardRequest;
+import com.bank.bank_app.dto.BulkIssueResult;
+import com.bank.bank_app.entity.Card;
+import com.bank.bank_app.entity.CardStatus;
+import com.bank.bank_app.entity.User;
+import com.bank.bank_app.repository.CardRepository;
+import com.bank.bank_app.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Issues many cards in one transaction.
+ * Numbers are generated up front and de-duplicated by blind index against the batch and the cards
+ * table. Encryption runs in parallel. Cards are persisted in flush-size chunks, so the pre-allocated
+ * sequence ids let Hibernate send JDBC batches, and the persistence context is cleared between chunks.
+ */
+@Service
+public class CardIssuanceService {
+
+    private static final Logger log = LoggerFactory.getLogger(CardIssuanceService.class);
+
+    static final int VALIDITY_YEARS = 3;
+    private static final int HASH_LOOKUP_CHUNK = 1000;
+    private static final int MAX_GENERATION_ROUNDS = 10;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private EncryptionService encryptionService;
+
+    @Autowired
+    private CardNumberGenerator cardNumberGenerator;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${app.cards.bulk.max-size:10000}")
+    private int maxBulkSize = 10000;
+
+    @Value("${app.cards.bulk.flush-size:500}")
+    private int flushSize = 500;
+
+    @Transactional
+    public BulkIssueResult issue(List<BulkCardRequest> requests) {
+        long started = System.nanoTime();
+        int total = validate(requests);
+
+        Set<Long> userIds = requests.stream().map(BulkCardRequest::getUserId).collect(Collectors.toSet());
+        Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+        for (Long userId : userIds) {
+            if (!users.containsKey(userId)) {
+                throw new IllegalArgumentException("User not found with id: " + userId);
+            }
+        }
+
+        List<Card> cards = prepare(requests, users, total);
+
+        for (int i = 0; i < cards.size(); i++) {
+            entityManager.persist(cards.get(i));
+            if ((i + 1) % flushSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        ledgerService.recordOpeningBalances(cards);
+
+        List<Long> ids = cards.stream().map(Card::getId).toList();
+        long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+        log.info("Issued {} card(s) in {} ms", ids.size(), elapsedMs);
+        return new BulkIssueResult(ids, elapsedMs);
+    }
+
+    private int validate(List<BulkCardRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("At least one card must be requested");
+        }
+        long total = 0;
+        for (BulkCardRequest request : requests) {
+            if (request.getUserId() == null) {
+                throw new IllegalArgumentException("userId is required");
+            }
+            if (request.getOwnerName() == null || request.getOwnerName().isBlank()) {
+                throw new IllegalArgumentException("ownerName is required");
+            }
+            if (request.getCount() < 1) {
+                throw new IllegalArgumentException("count must be positive");
+            }
+            if (request.getBalance() != null && request.getBalance().signum() < 0) {
+                throw new IllegalArgumentException("balance must not be negative");
+            }
+            total += request.getCount();
+        }
+        if (total > maxBulkSize) {
+            throw new IllegalArgumentException("Bulk size exceeds limit of " + maxBulkSize);
+        }
+        return (int) total;
+    }
+
+    List<Card> prepare(List<BulkCardRequest> requests, Map<Long, User> users, int total) {
+        List<Map.Entry<String, String>> numbers = new ArrayList<>(uniqueNumbers(total).entrySet());
+        LocalDate expiryDate = LocalDate.now().plusYears(VALIDITY_YEARS);
+
+        Card[] cards = new Card[total];
+        int index = 0;
+        for (BulkCardRequest request : requests) {
+            User user = users.get(request.getUserId());
+            BigDecimal balance = request.getBalance() != null ? request.getBalance() : BigDecimal.ZERO;
+            for (int i = 0; i < request.getCount(); i++, index++) {
+                Card card = new Card();
+                card.setOwnerName(request.getOwnerName());
+                card.setExpiryDate(expiryDate);
+                card.setBalance(balance);
+                card.setStatus(CardStatus.ACTIVE);
+                card.setUser(user);
+                cards[index] = card;
+            }
+        }
+
+        // AES-GCM dominates the cost per card; EncryptionService pools ciphers and is safe to share.
+        IntStream.range(0, total).parallel().forEach(i -> {
+            String number = numbers.get(i).getValue();
+            cards[i].setCardNumberHash(numbers.get(i).getKey());
+            cards[i].setCardLast4(EncryptionService.last4(number));
+            cards[i].setCardNumber(encryptionService.encrypt(number));
+        });
+        return List.of(cards);
+    }
+
+    // Blind index -> number for count numbers that are unique within the batch and not yet issued.
+    Map<String, String> uniqueNumbers(int count) {
+        Map<String, String> numbers = new HashMap<>(count * 2);
+        for (int round = 0; round < MAX_GENERATION_ROUNDS && numbers.size() < count; round++) {
+            List<String> generated = IntStream.range(0, count - numbers.size())
+                    .mapToObj(i -> cardNumberGenerator.generate())
+                    .toList();
+            Map<String, String> candidates = generated.parallelStream()
+                    .collect(Collectors.toMap(encryptionService::blindIndex, Function.identity(), (a, b) -> a));
+            candidates.keySet().removeAll(numbers.keySet());
+
+            List<String> hashes = new ArrayList<>(candidates.keySet());
+            for (int from = 0; from < hashes.size(); from += HASH_LOOKUP_CHUNK) {
+                List<String> chunk = hashes.subList(from, Math.min(from + HASH_LOOKUP_CHUNK, hashes.size()));
+                cardRepository.findExistingHashes(chunk).forEach(candidates::remove);
+            }
+            numbers.putAll(candidates);
+        }
+        if (numbers.size() < count) {
+            throw new IllegalStateException("Could not generate " + count + " unique card numbers");
+        }
+        return numbers;
+    }
+}
@@ -0,0 +1,60 @@
+package com.bank.bank_app.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 16-digit card numbers: the configured 6-digit BIN, 9 random account digits and a Luhn check digit.
+ * Uniqueness is not guaranteed here; callers check the blind index (see CardIssuanceService).
+ */
+@Component
+public class CardNumberGenerator {
+
+    static final int LENGTH = 16;
+
+    private final char[] bin;
+
+    public CardNumberGenerator(@Value("${app.cards.bin:400000}") String bin) {
+        if (bin == null || !bin.matches("\\d{6}")) {
+            throw new IllegalArgumentException("app.cards.bin must be 6 digits");
+        }
+        this.bin = bin.toCharArray();
+    }
+
+    public String generate() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        char[] number = new char[LENGTH];
+        System.arraycopy(bin, 0, number, 0, bin.length);
+        for (int i = bin.length; i < LENGTH - 1; i++) {
+            number[i] = (char) ('0' + random.nextInt(10));
+        }
+        number[LENGTH - 1] = (char) ('0' + luhnCheckDigit(number, LENGTH - 1));
+        return new String(number);
+    }
+
+    static int luhnCheckDigit(char[] digits, int length) {
+        int sum = 0;
+        // Walking right to left, the digit next to the check digit is doubled first.
+        for (int i = length - 1, position = 0; i >= 0; i--, position++) {
+            int digit = digits[i] - '0';
+            if (position % 2 == 0) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+        }
+        return (10 - sum % 10) % 10;
+    }
+
+    public static boolean isLuhnValid(String number) {
+        if (number == null || number.length() < 2 || !number.chars().allMatch(Character::isDigit)) {
+            return false;
+        }
+        char[] digits = number.toCharArray();
+        return luhnCheckDigit(digits, digits.length - 1) == digits[digits.length - 1] - '0';
+    }
+}
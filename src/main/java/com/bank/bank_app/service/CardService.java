@@ -1,103 +1,147 @@
 package com.bank.bank_app.service;
 
+import com.bank.bank_app.dto.CardFilter;
+import com.bank.bank_app.dto.CardSlice;
+import com.bank.bank_app.dto.CardView;
+import com.bank.bank_app.dto.ExpirySweepReport;
 import com.bank.bank_app.entity.Card;
 import com.bank.bank_app.entity.CardStatus;
+import com.bank.bank_app.entity.CardTransactionType;
 import com.bank.bank_app.entity.User;
 import com.bank.bank_app.exception.CardNotFoundException;
 import com.bank.bank_app.repository.CardRepository;
+import com.bank.bank_app.repository.CardSpecifications;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class CardService {
 
+    private static final Logger log = LoggerFactory.getLogger(CardService.class);
+
     @Autowired
     private CardRepository cardRepository;
 
     @Autowired
     private EncryptionService encryptionService;
 
-    public Page<Card> getUserCardsWithFilters(User user, String ownerName, CardStatus status, Pageable pageable) {
-        if (ownerName != null && status != null) {
-            return cardRepository.findByUserAndOwnerNameContainingIgnoreCaseAndStatus(user, ownerName, status, pageable)
-                    .map(this::maskCardNumber);
-        } else if (ownerName != null) {
-            return cardRepository.findByUserAndOwnerNameContainingIgnoreCase(user, ownerName, pageable)
-                    .map(this::maskCardNumber);
-        } else if (status != null) {
-            return cardRepository.findByUserAndStatus(user, status, pageable)
-                    .map(this::maskCardNumber);
-        } else {
-            return cardRepository.findByUser(user, pageable)
-                    .map(this::maskCardNumber);
-        }
+    @Autowired
+    private CardExpiryService cardExpiryService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private HotCardBalanceService hotCardBalanceService;
+
+    public Page<CardView> getUserCardsWithFilters(User user, CardFilter filter, Pageable pageable) {
+        return cardRepository.findViews(CardSpecifications.matching(user.getId(), filter), pageable);
     }
 
-    @Scheduled(cron = "0 0 0 * * ?")
-    @Transactional
-    public void checkAndUpdateExpiredCards() {
-        List<Card> allCards = cardRepository.findAll();
-        LocalDate today = LocalDate.now();
-
-        for (Card card : allCards) {
-            if (card.getExpiryDate().isBefore(today) && card.getStatus() != CardStatus.EXPIRED) {
-                card.setStatus(CardStatus.EXPIRED);
-                cardRepository.save(card);
-                System.out.println("Card " + card.getId() + " marked as EXPIRED");
+    public CardSlice getUserCardsSlice(User user, CardFilter filter, long afterId, Pageable pageable) {
+        for (Sort.Order order : pageable.getSort()) {
+            if (!order.getProperty().equals("id") || order.isDescending()) {
+                throw new IllegalArgumentException("Cursor pagination supports only ascending id order");
             }
         }
+        Specification<Card> spec = CardSpecifications.matching(user.getId(), filter)
+                .and(CardSpecifications.idAfter(afterId));
+        Slice<CardView> slice = cardRepository.findViewSlice(spec, pageable);
+        return new CardSlice(slice.getContent(), slice.getSize(), slice.hasNext());
+    }
+
+    public Page<CardView> getAllCards(CardFilter filter, Pageable pageable) {
+        return cardRepository.findViews(CardSpecifications.matching(null, filter), pageable);
+    }
+
+    @Scheduled(cron = "${app.expiry.cron:0 0 0 * * ?}")
+    public ExpirySweepReport checkAndUpdateExpiredCards() {
+        return cardExpiryService.expireCards(LocalDate.now());
     }
 
+    @Transactional
     public Card createCard(Card card) {
-        String encryptedCardNumber = encryptionService.encrypt(card.getCardNumber());
-        card.setCardNumber(encryptedCardNumber);
+        String cardNumber = card.getCardNumber();
+        card.setCardLast4(EncryptionService.last4(cardNumber));
+        card.setCardNumberHash(encryptionService.blindIndex(cardNumber));
+        card.setCardNumber(encryptionService.encrypt(cardNumber));
 
         if (card.getExpiryDate().isBefore(LocalDate.now())) {
             card.setStatus(CardStatus.EXPIRED);
         }
 
-        return cardRepository.save(card);
+        Card saved = cardRepository.save(card);
+        if (saved.getBalance() != null) {
+            ledgerService.recordEntry(saved.getId(), saved.getBalance(), CardTransactionType.OPENING);
+        }
+        return saved;
     }
 
-    public Card getCardWithMaskedNumber(Long id) {
-        Card card = getCardById(id);
-        return maskCardNumber(card);
+    public CardView getCardWithMaskedNumber(Long id) {
+        return cardRepository.findViewById(id)
+                .orElseThrow(() -> new CardNotFoundException("Card not found with id: " + id));
     }
 
-    public Card maskCardNumber(Card card) {
-        try {
-            System.out.println("Masking card ID: " + card.getId());
-            System.out.println("Raw card number from DB: " + card.getCardNumber());
-
-            String decryptedNumber = encryptionService.decrypt(card.getCardNumber());
-            System.out.println("Decrypted number: " + decryptedNumber);
+    public boolean isOwner(Long cardId, User user) {
+        return cardRepository.existsByIdAndUserId(cardId, user.getId());
+    }
 
-            String maskedNumber = "**** **** **** " + decryptedNumber.substring(12);
-            System.out.println("Masked number: " + maskedNumber);
+    public CardView toView(Card card) {
+        return new CardView(card.getId(), resolveLast4(card), card.getOwnerName(), card.getExpiryDate(),
+                card.getBalance(), card.getStatus(), card.getUserId());
+    }
 
-            card.setCardNumber(maskedNumber);
-            return card;
+    public String maskCardNumber(Card card) {
+        return CardView.mask(resolveLast4(card));
+    }
 
+    // Cards not yet backfilled by CardBlindIndexBackfill have no stored last4 and need one decryption.
+    private String resolveLast4(Card card) {
+        if (card.getCardLast4() != null) {
+            return card.getCardLast4();
+        }
+        try {
+            return EncryptionService.last4(encryptionService.decrypt(card.getCardNumber()));
         } catch (Exception e) {
-            System.out.println("Error masking card: " + e.getMessage());
-            e.printStackTrace();
-            card.setCardNumber("**** **** **** ****");
-            return card;
+            log.warn("Cannot resolve last4 for card {}: {}", card.getId(), e.getMessage());
+            return null;
         }
     }
 
-    public Page<Card> getUserCards(User user, Pageable pageable) {
-        Page<Card> cards = cardRepository.findByUser(user, pageable);
-        return cards.map(this::maskCardNumber);
+    public Page<CardView> getUserCards(User user, Pageable pageable) {
+        return getUserCardsWithFilters(user, null, pageable);
     }
 
     public Card getCardById(Long id) {
@@ -105,10 +149,123 @@ public class CardService {
                 .orElseThrow(() -> new CardNotFoundException("Card not found with id: " + id));
     }
 
-    public Card updateBalance(Long id, BigDecimal newBalance) {
-        Card card = getCardById(id);
-        card.setBalance(newBalance);
-        return cardRepository.save(card);
+    // A delta, not an absolute write, so transfers committing meanwhile are not overwritten.
+    @Transactional
+    public Card topUp(Long id, BigDecimal amount) {
+        adjustBalance(id, amount);
+        ledgerService.recordEntry(id, amount, CardTransactionType.ADJUSTMENT);
+        return getCardById(id);
+    }
+
+    public List<Card> lockCardsForUpdate(Long... ids) {
+        List<Long> sortedIds = Arrays.stream(ids).sorted().distinct().toList();
+        return requireAll(sortedIds, lockExistingCardsForUpdate(sortedIds));
+    }
+
+    public List<Card> lockExistingCardsForUpdate(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return cardRepository.findAllByIdForUpdate(ids);
+    }
+
+    public List<Card> lockCardsForTransfer(Long fromCardId, Long toCardId) {
+        List<Long> sortedIds = Stream.of(fromCardId, toCardId).sorted().distinct().toList();
+        return requireAll(sortedIds, lockExistingCardsForTransfer(Set.of(fromCardId), sortedIds));
+    }
+
+    /**
+     * Like lockExistingCardsForUpdate, except that hot cards which are only credited get a share lock,
+     * so concurrent credits to them do not queue on the card row. Rows are locked in ascending id
+     * order whatever the mode, one query per run of ids with the same mode.
+     */
+    public List<Card> lockExistingCardsForTransfer(Collection<Long> debitedIds, Collection<Long> ids) {
+        List<Long> sortedIds = ids.stream().sorted().distinct().toList();
+        if (sortedIds.stream().noneMatch(id -> shareLocked(id, debitedIds))) {
+            return lockExistingCardsForUpdate(sortedIds);
+        }
+        List<Card> cards = new ArrayList<>(sortedIds.size());
+        int from = 0;
+        while (from < sortedIds.size()) {
+            boolean shared = shareLocked(sortedIds.get(from), debitedIds);
+            int to = from + 1;
+            while (to < sortedIds.size() && shareLocked(sortedIds.get(to), debitedIds) == shared) {
+                to++;
+            }
+            List<Long> run = sortedIds.subList(from, to);
+            cards.addAll(shared ? cardRepository.findAllByIdForShare(run) : cardRepository.findAllByIdForUpdate(run));
+            from = to;
+        }
+        return cards;
+    }
+
+    private boolean shareLocked(Long id, Collection<Long> debitedIds) {
+        return !debitedIds.contains(id) && hotCardBalanceService.isHot(id);
+    }
+
+    private static List<Card> requireAll(List<Long> sortedIds, List<Card> cards) {
+        if (cards.size() != sortedIds.size()) {
+            Set<Long> found = cards.stream().map(Card::getId).collect(Collectors.toSet());
+            Long missing = sortedIds.stream().filter(id -> !found.contains(id)).findFirst().orElse(null);
+            throw new CardNotFoundException("Card not found with id: " + missing);
+        }
+        return cards;
+    }
+
+    public void applyBalanceDeltas(SortedMap<Long, BigDecimal> deltas) {
+        List<Object[]> batchArgs = new ArrayList<>(deltas.size());
+        deltas.forEach((id, delta) -> {
+            if (delta.signum() != 0 && !adjustHotBalance(id, delta)) {
+                batchArgs.add(new Object[]{delta, id});
+            }
+        });
+        jdbcTemplate.batchUpdate("UPDATE cards SET balance = balance + ? WHERE id = ?", batchArgs);
+        evictCards(deltas.keySet());
+    }
+
+    // Plain SQL rather than a JPQL bulk update, which would invalidate the whole cards cache region.
+    public void adjustBalance(Long id, BigDecimal delta) {
+        if (!adjustHotBalance(id, delta)
+                && jdbcTemplate.update("UPDATE cards SET balance = balance + ? WHERE id = ?", delta, id) == 0) {
+            throw new CardNotFoundException("Card not found with id: " + id);
+        }
+        evictCards(List.of(id));
+    }
+
+    // Credits to a hot card go to a stripe, debits borrow from the stripes if needed; false if not hot.
+    private boolean adjustHotBalance(Long id, BigDecimal delta) {
+        if (delta.signum() == 0 || !hotCardBalanceService.isHot(id)) {
+            return false;
+        }
+        if (delta.signum() > 0) {
+            return hotCardBalanceService.credit(id, delta);
+        }
+        hotCardBalanceService.debit(id, delta.negate());
+        return true;
+    }
+
+    public void setHotCard(Long id, int stripes) {
+        if (stripes > 0) {
+            hotCardBalanceService.enable(id, stripes);
+        } else {
+            hotCardBalanceService.disable(id);
+        }
+    }
+
+    // Evicts now and again after the transaction ends, so a concurrent reader that cached the
+    // old row in between does not keep it.
+    private void evictCards(Collection<Long> ids) {
+        Cache cache = entityManagerFactory.getCache();
+        List<Long> evicted = List.copyOf(ids);
+        evicted.forEach(id -> cache.evict(Card.class, id));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evicted.forEach(id -> cache.evict(Card.class, id));
+                }
+            });
+        }
     }
 
     public Card blockCard(Long id) {
@@ -129,6 +286,10 @@ public class CardService {
     }
 
     public Optional<Card> findByCardNumber(String cardNumber) {
-        return cardRepository.findByCardNumber(cardNumber);
+        return cardRepository.findByCardNumberHash(encryptionService.blindIndex(cardNumber));
+    }
+
+    public boolean existsByCardNumber(String cardNumber) {
+        return cardRepository.existsByCardNumberHash(encryptionService.blindIndex(cardNumber));
     }
 }
\ No newline at end of file
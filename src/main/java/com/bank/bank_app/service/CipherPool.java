@@ -0,0 +1,41 @@
+package com.bank.bank_app.service;
+
+import javax.crypto.Cipher;
+import java.security.GeneralSecurityException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free pool of {@link Cipher} instances for one transformation.
+ * A Cipher is not thread-safe, so each operation borrows its own instance and
+ * re-initialises it; no monitor is held, which keeps virtual threads unpinned.
+ */
+public class CipherPool {
+
+    private final String transformation;
+    private final int maxIdle;
+    private final ConcurrentLinkedQueue<Cipher> idle = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger idleCount = new AtomicInteger();
+
+    public CipherPool(String transformation, int maxIdle) {
+        this.transformation = transformation;
+        this.maxIdle = maxIdle;
+    }
+
+    public Cipher borrow() throws GeneralSecurityException {
+        Cipher cipher = idle.poll();
+        if (cipher != null) {
+            idleCount.decrementAndGet();
+            return cipher;
+        }
+        return Cipher.getInstance(transformation);
+    }
+
+    public void release(Cipher cipher) {
+        if (idleCount.incrementAndGet() <= maxIdle) {
+            idle.offer(cipher);
+        } else {
+            idleCount.decrementAndGet();
+        }
+    }
+}
@@ -1,36 +1,150 @@
 package com.bank.bank_app.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
 import java.util.Base64;
+import java.util.HexFormat;
 
 @Service
 public class EncryptionService {
 
+    // v1 = AES-256-GCM, payload is Base64(nonce || ciphertext || tag).
+    // Values without a version prefix were written by the old AES/ECB implementation.
+    static final String V1_PREFIX = "v1:";
+    private static final String GCM_TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final String LEGACY_TRANSFORMATION = "AES/ECB/PKCS5Padding";
+    private static final int NONCE_LENGTH = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+    private static final String BLIND_INDEX_ALGORITHM = "HmacSHA256";
+
+    private final SecureRandom secureRandom = new SecureRandom();
+    private final CipherPool gcmPool;
+    private final CipherPool legacyPool;
+
     @Autowired
-    private Cipher encryptionCipher;
+    @Qualifier("secretKey")
+    private SecretKey secretKey;
+
+    private Mac blindIndexPrototype;
+
+    private final Timer encryptTimer;
+    private final Timer decryptTimer;
 
     @Autowired
-    private Cipher decryptionCipher;
+    public EncryptionService(@Value("${app.encryption.cipher-pool.max-idle:64}") int maxIdle,
+                             MeterRegistry meterRegistry) {
+        this.gcmPool = new CipherPool(GCM_TRANSFORMATION, maxIdle);
+        this.legacyPool = new CipherPool(LEGACY_TRANSFORMATION, maxIdle);
+        this.encryptTimer = cryptoTimer("encrypt", meterRegistry);
+        this.decryptTimer = cryptoTimer("decrypt", meterRegistry);
+    }
+
+    private static Timer cryptoTimer(String operation, MeterRegistry meterRegistry) {
+        return Timer.builder("bank.crypto")
+                .description("Card number encryption and decryption")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    @Autowired
+    public void setBlindIndexKey(@Qualifier("blindIndexKey") SecretKey blindIndexKey) throws GeneralSecurityException {
+        Mac mac = Mac.getInstance(BLIND_INDEX_ALGORITHM);
+        mac.init(blindIndexKey);
+        this.blindIndexPrototype = mac;
+    }
+
+    // Keyed HMAC of the PAN: deterministic, so it can be indexed and used for equality lookups,
+    // but useless for recovering the number without the key.
+    public String blindIndex(String cardNumber) {
+        try {
+            // The initialised prototype is never used directly; each caller works on its own clone.
+            Mac mac = (Mac) blindIndexPrototype.clone();
+            return HexFormat.of().formatHex(mac.doFinal(cardNumber.getBytes(StandardCharsets.UTF_8)));
+        } catch (CloneNotSupportedException e) {
+            throw new RuntimeException("Blind index failed", e);
+        }
+    }
+
+    public static String last4(String cardNumber) {
+        return cardNumber.substring(cardNumber.length() - 4);
+    }
 
     public String encrypt(String data) {
+        return encryptTimer.record(() -> encryptV1(data));
+    }
+
+    private String encryptV1(String data) {
         try {
-            byte[] encryptedBytes = encryptionCipher.doFinal(data.getBytes());
-            return Base64.getEncoder().encodeToString(encryptedBytes);
+            byte[] nonce = new byte[NONCE_LENGTH];
+            secureRandom.nextBytes(nonce);
+
+            Cipher cipher = gcmPool.borrow();
+            byte[] encryptedBytes;
+            try {
+                cipher.init(Cipher.ENCRYPT_MODE, secretKey, new GCMParameterSpec(TAG_LENGTH_BITS, nonce));
+                encryptedBytes = cipher.doFinal(data.getBytes(StandardCharsets.UTF_8));
+            } finally {
+                gcmPool.release(cipher);
+            }
+
+            byte[] payload = ByteBuffer.allocate(NONCE_LENGTH + encryptedBytes.length)
+                    .put(nonce)
+                    .put(encryptedBytes)
+                    .array();
+            return V1_PREFIX + Base64.getEncoder().encodeToString(payload);
         } catch (Exception e) {
             throw new RuntimeException("Encryption failed", e);
         }
     }
 
     public String decrypt(String encryptedData) {
+        return decryptTimer.record(() -> decryptAny(encryptedData));
+    }
+
+    private String decryptAny(String encryptedData) {
         try {
-            byte[] decodedBytes = Base64.getDecoder().decode(encryptedData);
-            byte[] decryptedBytes = decryptionCipher.doFinal(decodedBytes);
-            return new String(decryptedBytes);
+            if (encryptedData.startsWith(V1_PREFIX)) {
+                return decryptV1(encryptedData.substring(V1_PREFIX.length()));
+            }
+            return decryptLegacy(encryptedData);
         } catch (Exception e) {
             throw new RuntimeException("Decryption failed", e);
         }
     }
-}
\ No newline at end of file
+
+    private String decryptV1(String payload) throws Exception {
+        byte[] decodedBytes = Base64.getDecoder().decode(payload);
+        Cipher cipher = gcmPool.borrow();
+        try {
+            cipher.init(Cipher.DECRYPT_MODE, secretKey, new GCMParameterSpec(TAG_LENGTH_BITS, decodedBytes, 0, NONCE_LENGTH));
+            byte[] decryptedBytes = cipher.doFinal(decodedBytes, NONCE_LENGTH, decodedBytes.length - NONCE_LENGTH);
+            return new String(decryptedBytes, StandardCharsets.UTF_8);
+        } finally {
+            gcmPool.release(cipher);
+        }
+    }
+
+    private String decryptLegacy(String payload) throws Exception {
+        byte[] decodedBytes = Base64.getDecoder().decode(payload);
+        Cipher cipher = legacyPool.borrow();
+        try {
+            cipher.init(Cipher.DECRYPT_MODE, secretKey);
+            return new String(cipher.doFinal(decodedBytes), StandardCharsets.UTF_8);
+        } finally {
+            legacyPool.release(cipher);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.bank.bank_app.service;
+
+import com.bank.bank_app.entity.Card;
+import com.bank.bank_app.exception.CardNotFoundException;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Split balances for cards that receive many credits ("hot" cards).
+ * A hot card has N rows in card_balance_stripes; its balance is cards.balance plus their sum. Credits
+ * add to a random stripe, so concurrent credits update different rows, and the card row itself is only
+ * share-locked (see CardService.lockExistingCardsForTransfer). Debits stay on cards.balance under the
+ * card's row lock and fold the stripes in when cards.balance alone is not enough. The consolidator
+ * folds all stripes back into cards.balance periodically.
+ * <p>
+ * Lock order is always the cards row first, then stripes. The set of hot cards is kept in memory and
+ * refreshed by the consolidator; a stale entry only costs a fallback to cards.balance.
+ */
+@Service
+public class HotCardBalanceService {
+
+    private static final Logger log = LoggerFactory.getLogger(HotCardBalanceService.class);
+
+    // Moves the stripe amounts into cards.balance in one statement and returns how much was moved.
+    private static final String FOLD_SQL =
+            "WITH folded AS (UPDATE card_balance_stripes SET amount = 0 " +
+            "WHERE card_id = ? AND amount <> 0 RETURNING amount), " +
+            "total AS (SELECT COALESCE(SUM(amount), 0) AS amount FROM folded), " +
+            "moved AS (UPDATE cards SET balance = balance + (SELECT amount FROM total) WHERE id = ?) " +
+            "SELECT amount FROM total";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Value("${app.cards.hot.max-stripes:64}")
+    private int maxStripes = 64;
+
+    private final Map<Long, Integer> stripes = new ConcurrentHashMap<>();
+
+    public boolean isHot(Long cardId) {
+        return stripes.containsKey(cardId);
+    }
+
+    /**
+     * Adds a positive amount to a random stripe. Returns false if the card has no stripes, in which
+     * case the caller credits cards.balance instead.
+     */
+    public boolean credit(Long cardId, BigDecimal amount) {
+        Integer count = stripes.get(cardId);
+        if (count == null) {
+            return false;
+        }
+        int stripe = ThreadLocalRandom.current().nextInt(count);
+        if (jdbcTemplate.update("UPDATE card_balance_stripes SET amount = amount + ? WHERE card_id = ? AND stripe = ?",
+                amount, cardId, stripe) == 0) {
+            stripes.remove(cardId, count);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Subtracts from cards.balance, borrowing from the stripes when it is not enough. The caller holds
+     * the card's row lock and has checked the total balance.
+     */
+    public void debit(Long cardId, BigDecimal amount) {
+        if (jdbcTemplate.update("UPDATE cards SET balance = balance - ? WHERE id = ? AND balance >= ?",
+                amount, cardId, amount) == 1) {
+            return;
+        }
+        fold(cardId);
+        if (jdbcTemplate.update("UPDATE cards SET balance = balance - ? WHERE id = ?", amount, cardId) == 0) {
+            throw new CardNotFoundException("Card not found with id: " + cardId);
+        }
+    }
+
+    @Transactional
+    public void enable(Long cardId, int count) {
+        if (count < 2 || count > maxStripes) {
+            throw new IllegalArgumentException("stripes must be between 2 and " + maxStripes);
+        }
+        lockCard(cardId);
+        fold(cardId);
+        jdbcTemplate.update("DELETE FROM card_balance_stripes WHERE card_id = ?", cardId);
+        jdbcTemplate.batchUpdate("INSERT INTO card_balance_stripes (card_id, stripe, amount) VALUES (?, ?, 0)",
+                IntStream.range(0, count).mapToObj(i -> new Object[]{cardId, i}).toList());
+        jdbcTemplate.update("UPDATE cards SET balance_stripes = ? WHERE id = ?", count, cardId);
+        stripes.put(cardId, count);
+        evict(cardId);
+        log.info("Card {} is hot with {} balance stripes", cardId, count);
+    }
+
+    @Transactional
+    public void disable(Long cardId) {
+        lockCard(cardId);
+        stripes.remove(cardId);
+        fold(cardId);
+        jdbcTemplate.update("DELETE FROM card_balance_stripes WHERE card_id = ?", cardId);
+        jdbcTemplate.update("UPDATE cards SET balance_stripes = 0 WHERE id = ?", cardId);
+        evict(cardId);
+        log.info("Card {} is no longer hot", cardId);
+    }
+
+    private BigDecimal fold(Long cardId) {
+        return jdbcTemplate.queryForObject(FOLD_SQL, BigDecimal.class, cardId, cardId);
+    }
+
+    // Folds each hot card in its own short transaction and picks up cards made hot or cold elsewhere.
+    @Scheduled(fixedDelayString = "${app.cards.hot.consolidate-interval-ms:5000}")
+    public int consolidate() {
+        Map<Long, Integer> current = new HashMap<>();
+        jdbcTemplate.query("SELECT id, balance_stripes FROM cards WHERE balance_stripes > 0",
+                (RowCallbackHandler) rs -> current.put(rs.getLong("id"), rs.getInt("balance_stripes")));
+        stripes.keySet().retainAll(current.keySet());
+        stripes.putAll(current);
+
+        int consolidated = 0;
+        for (Long cardId : current.keySet()) {
+            BigDecimal folded = transactionTemplate.execute(status -> {
+                List<Long> locked = jdbcTemplate.queryForList(
+                        "SELECT id FROM cards WHERE id = ? FOR UPDATE", Long.class, cardId);
+                return locked.isEmpty() ? BigDecimal.ZERO : fold(cardId);
+            });
+            if (folded != null && folded.signum() != 0) {
+                evict(cardId);
+                consolidated++;
+            }
+        }
+        if (consolidated > 0) {
+            log.debug("Consolidated balance stripes of {} hot card(s)", consolidated);
+        }
+        return consolidated;
+    }
+
+    private void lockCard(Long cardId) {
+        if (jdbcTemplate.queryForList("SELECT id FROM cards WHERE id = ? FOR UPDATE", Long.class, cardId).isEmpty()) {
+            throw new CardNotFoundException("Card not found with id: " + cardId);
+        }
+    }
+
+    private void evict(Long cardId) {
+        entityManagerFactory.getCache().evict(Card.class, cardId);
+    }
+}
@@ -0,0 +1,232 @@
+package com.bank.bank_app.service;
+
+import com.bank.bank_app.dto.IdempotentOutcome;
+import com.bank.bank_app.dto.TransferRequest;
+import com.bank.bank_app.entity.IdempotencyRecord;
+import com.bank.bank_app.entity.User;
+import com.bank.bank_app.exception.CardNotFoundException;
+import com.bank.bank_app.exception.InsufficientFundsException;
+import com.bank.bank_app.exception.TransferException;
+import com.bank.bank_app.repository.IdempotencyRecordRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Idempotency-Key handling for POST /api/cards/transfer.
+ * The first request with a key reserves a row in idempotency_keys, runs the transfer and stores the
+ * outcome in the same transaction. Retries with the same key get the stored outcome from the LRU
+ * cache or one indexed lookup and never touch the card rows. Business rejections are stored too;
+ * unexpected failures release the key so the client can retry.
+ * <p>
+ * A reservation is a short lease (lease-seconds); only a completed outcome is kept for ttl-hours. The
+ * transaction running the transfer row-locks the reservation first, so a retry cannot take over a
+ * transfer that is still running. If the process dies before completing, the lease simply runs out and
+ * the next retry with the key takes the reservation over and runs the transfer.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    static final String SUCCESS_BODY = "Transfer successful";
+    static final int MAX_KEY_LENGTH = 255;
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.idempotency.ttl-hours:24}")
+    private long ttlHours = 24;
+
+    @Value("${app.idempotency.lease-seconds:10}")
+    private long leaseSeconds = 10;
+
+    @Value("${app.idempotency.cache-size:10000}")
+    private int cacheSize = 10000;
+
+    // Access-ordered LinkedHashMap as an LRU; a ReentrantLock rather than synchronized keeps
+    // virtual threads unpinned.
+    private final ReentrantLock cacheLock = new ReentrantLock();
+    private final LinkedHashMap<String, CachedOutcome> cache = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedOutcome> eldest) {
+            return size() > cacheSize;
+        }
+    };
+
+    public IdempotentOutcome transfer(User user, String idempotencyKey, TransferRequest request) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1-" + MAX_KEY_LENGTH + " characters");
+        }
+        String cacheKey = user.getId() + ":" + idempotencyKey;
+        String requestHash = requestHash(request);
+        LocalDateTime now = LocalDateTime.now();
+
+        CachedOutcome cached = cacheGet(cacheKey);
+        if (cached != null && cached.expiresAt().isAfter(now)) {
+            return replay(cached, requestHash);
+        }
+
+        Optional<IdempotencyRecord> existing =
+                idempotencyRecordRepository.findByUserIdAndIdempotencyKey(user.getId(), idempotencyKey);
+        if (existing.isPresent() && existing.get().getExpiresAt().isAfter(now)) {
+            return replay(cacheKey, existing.get(), requestHash);
+        }
+
+        IdempotencyRecord reserved = reserve(user.getId(), idempotencyKey, requestHash, existing.orElse(null), now);
+        if (reserved == null) {
+            // A concurrent request with the same key won the insert.
+            return idempotencyRecordRepository.findByUserIdAndIdempotencyKey(user.getId(), idempotencyKey)
+                    .map(record -> replay(cacheKey, record, requestHash))
+                    .orElseGet(this::inProgress);
+        }
+
+        LocalDateTime expiresAt = LocalDateTime.now().plusHours(ttlHours);
+        IdempotentOutcome outcome = execute(user, request, reserved, expiresAt);
+        if (outcome == null) {
+            // Our lease ran out before the transfer started and a retry took the key over.
+            return inProgress();
+        }
+        cachePut(cacheKey, new CachedOutcome(requestHash, outcome.getStatusCode(), outcome.getBody(), expiresAt));
+        return outcome;
+    }
+
+    private IdempotentOutcome execute(User user, TransferRequest request, IdempotencyRecord reserved,
+                                      LocalDateTime expiresAt) {
+        try {
+            return transactionTemplate.execute(status -> {
+                if (idempotencyRecordRepository.claim(reserved.getId(), leaseUntil(LocalDateTime.now())) == 0) {
+                    return null;
+                }
+                transferService.transferBetweenOwnCards(user, request.getFromCardId(),
+                        request.getToCardId(), request.getAmount());
+                idempotencyRecordRepository.complete(reserved.getId(), 200, SUCCESS_BODY, expiresAt);
+                return new IdempotentOutcome(200, SUCCESS_BODY, false);
+            });
+        } catch (TransferException | InsufficientFundsException | CardNotFoundException e) {
+            // Deterministic rejections: a retry would fail the same way, so remember them.
+            transactionTemplate.execute(status ->
+                    idempotencyRecordRepository.complete(reserved.getId(), 400, e.getMessage(), expiresAt));
+            return new IdempotentOutcome(400, e.getMessage(), false);
+        } catch (RuntimeException e) {
+            transactionTemplate.execute(status -> {
+                idempotencyRecordRepository.deleteById(reserved.getId());
+                return null;
+            });
+            throw e;
+        }
+    }
+
+    // An expired row is either an old outcome past its TTL or a reservation whose lease ran out
+    // (abandoned by a crashed request); both are replaced. If it was completed meanwhile, the delete
+    // is a no-op and the insert below loses to the unique key.
+    private IdempotencyRecord reserve(Long userId, String idempotencyKey, String requestHash,
+                                      IdempotencyRecord expired, LocalDateTime now) {
+        try {
+            return transactionTemplate.execute(status -> {
+                if (expired != null) {
+                    idempotencyRecordRepository.deleteIfExpired(expired.getId(), now);
+                }
+                return idempotencyRecordRepository.saveAndFlush(new IdempotencyRecord(
+                        userId, idempotencyKey, requestHash, now, leaseUntil(now)));
+            });
+        } catch (DataIntegrityViolationException e) {
+            return null;
+        }
+    }
+
+    private LocalDateTime leaseUntil(LocalDateTime now) {
+        return now.plusSeconds(leaseSeconds);
+    }
+
+    private IdempotentOutcome replay(String cacheKey, IdempotencyRecord record, String requestHash) {
+        if (!record.isCompleted()) {
+            return inProgress();
+        }
+        CachedOutcome cached = new CachedOutcome(record.getRequestHash(), record.getStatusCode(),
+                record.getResponseBody(), record.getExpiresAt());
+        cachePut(cacheKey, cached);
+        return replay(cached, requestHash);
+    }
+
+    private IdempotentOutcome replay(CachedOutcome cached, String requestHash) {
+        if (!cached.requestHash().equals(requestHash)) {
+            return new IdempotentOutcome(422, "Idempotency-Key was already used for a different request", true);
+        }
+        return new IdempotentOutcome(cached.statusCode(), cached.body(), true);
+    }
+
+    private IdempotentOutcome inProgress() {
+        return new IdempotentOutcome(409, "A request with this Idempotency-Key is still being processed", true);
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval-ms:600000}")
+    public int deleteExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        Integer deleted = transactionTemplate.execute(status -> idempotencyRecordRepository.deleteExpired(now));
+        cacheLock.lock();
+        try {
+            cache.values().removeIf(entry -> !entry.expiresAt().isAfter(now));
+        } finally {
+            cacheLock.unlock();
+        }
+        if (deleted != null && deleted > 0) {
+            log.info("Deleted {} expired idempotency key(s)", deleted);
+        }
+        return deleted != null ? deleted : 0;
+    }
+
+    static String requestHash(TransferRequest request) {
+        BigDecimal amount = request.getAmount();
+        String canonical = request.getFromCardId() + "|" + request.getToCardId() + "|"
+                + (amount != null ? amount.stripTrailingZeros().toPlainString() : "");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private CachedOutcome cacheGet(String key) {
+        cacheLock.lock();
+        try {
+            return cache.get(key);
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+
+    private void cachePut(String key, CachedOutcome outcome) {
+        cacheLock.lock();
+        try {
+            cache.put(key, outcome);
+        } finally {
+            cacheLock.unlock();
+        }
+    }
+
+    private record CachedOutcome(String requestHash, int statusCode, String body, LocalDateTime expiresAt) {}
+}
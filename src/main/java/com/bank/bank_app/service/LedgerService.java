@@ -0,0 +1,190 @@
+package com.bank.bank_app.service;
+
+import com.bank.bank_app.dto.CardSlice;
+import com.bank.bank_app.dto.CardStatement;
+import com.bank.bank_app.dto.CardTransactionView;
+import com.bank.bank_app.dto.TransferRequest;
+import com.bank.bank_app.entity.Card;
+import com.bank.bank_app.entity.CardBalanceSnapshot;
+import com.bank.bank_app.entity.CardTransactionType;
+import com.bank.bank_app.repository.CardBalanceSnapshotRepository;
+import com.bank.bank_app.repository.CardTransactionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Append-only card ledger. Entries are written with the balance change they describe, in the same
+ * transaction (the record methods refuse to run without one).
+ * Balance snapshots are taken periodically for cards with at least min-entries new entries, so a
+ * balance as of any time is one snapshot plus a bounded tail of entries. A run only looks at cards with
+ * entries since the previous run: the tail of any other card has not grown since it was last checked.
+ */
+@Service
+public class LedgerService {
+
+    private static final Logger log = LoggerFactory.getLogger(LedgerService.class);
+
+    private static final String INSERT_ENTRY =
+            "INSERT INTO card_transactions (card_id, counterparty_card_id, amount, type, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    // Cards with entries in (since, asOf]; only these can have reached min-entries since the previous run.
+    private static final String CARDS_WITH_NEW_ENTRIES =
+            "SELECT DISTINCT card_id FROM card_transactions WHERE created_at > ? AND created_at <= ? ORDER BY card_id";
+
+    // Where the first run after startup starts; no snapshots yet means every card with entries is checked.
+    private static final String LATEST_SNAPSHOT_AS_OF = "SELECT MAX(as_of) FROM card_balance_snapshots";
+
+    private static final Timestamp BEFORE_ANY_ENTRY = Timestamp.valueOf(LocalDateTime.of(1970, 1, 1, 0, 0));
+
+    // For every card of the chunk: latest snapshot plus the entries after it up to asOf,
+    // inserted as a new snapshot when that tail has at least minEntries rows.
+    private static final String SNAPSHOT_CARDS =
+            "INSERT INTO card_balance_snapshots (card_id, balance, as_of, created_at) " +
+            "SELECT c.id, COALESCE(s.balance, 0) + tail.total, ?, CURRENT_TIMESTAMP " +
+            "FROM cards c " +
+            "LEFT JOIN LATERAL (SELECT cs.balance, cs.as_of FROM card_balance_snapshots cs " +
+            "    WHERE cs.card_id = c.id ORDER BY cs.as_of DESC LIMIT 1) s ON TRUE " +
+            "CROSS JOIN LATERAL (SELECT COUNT(*) AS entries, COALESCE(SUM(t.amount), 0) AS total " +
+            "    FROM card_transactions t WHERE t.card_id = c.id AND t.created_at <= ? " +
+            "    AND (s.as_of IS NULL OR t.created_at > s.as_of)) tail " +
+            "WHERE c.id IN (%s) AND tail.entries >= ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CardTransactionRepository cardTransactionRepository;
+
+    @Autowired
+    private CardBalanceSnapshotRepository cardBalanceSnapshotRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${app.ledger.snapshot.min-entries:100}")
+    private int snapshotMinEntries = 100;
+
+    @Value("${app.ledger.snapshot.chunk-size:1000}")
+    private int snapshotChunkSize = 1000;
+
+    // Entries newer than this may belong to transactions that have not committed yet.
+    @Value("${app.ledger.snapshot.settle-seconds:60}")
+    private long snapshotSettleSeconds = 60;
+
+    // asOf of the last completed run.
+    private volatile Timestamp lastSnapshotAsOf;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransfer(Long fromCardId, Long toCardId, BigDecimal amount) {
+        recordTransfers(List.of(new TransferRequest(fromCardId, toCardId, amount)));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransfers(List<TransferRequest> transfers) {
+        if (transfers.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(transfers.size() * 2);
+        for (TransferRequest transfer : transfers) {
+            rows.add(new Object[]{transfer.getFromCardId(), transfer.getToCardId(), transfer.getAmount().negate(),
+                    CardTransactionType.TRANSFER_OUT.name(), now});
+            rows.add(new Object[]{transfer.getToCardId(), transfer.getFromCardId(), transfer.getAmount(),
+                    CardTransactionType.TRANSFER_IN.name(), now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_ENTRY, rows);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordOpeningBalances(List<Card> cards) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = cards.stream()
+                .filter(card -> card.getBalance() != null && card.getBalance().signum() != 0)
+                .map(card -> new Object[]{card.getId(), null, card.getBalance(), CardTransactionType.OPENING.name(), now})
+                .toList();
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ENTRY, rows);
+        }
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordEntry(Long cardId, BigDecimal amount, CardTransactionType type) {
+        if (amount.signum() == 0) {
+            return;
+        }
+        jdbcTemplate.update(INSERT_ENTRY, cardId, null, amount, type.name(), Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    public CardStatement getStatement(Long cardId, String before, int size) {
+        long beforeId = before != null ? CardSlice.decodeCursor(before) : Long.MAX_VALUE;
+        List<CardTransactionView> rows =
+                cardTransactionRepository.findStatement(cardId, beforeId, PageRequest.of(0, size + 1));
+        boolean hasNext = rows.size() > size;
+        List<CardTransactionView> content = hasNext ? rows.subList(0, size) : rows;
+        return new CardStatement(cardId, content, size, hasNext);
+    }
+
+    /**
+     * Balance of the card at the given time. History starts at the card's first ledger entry: for
+     * cards created before the ledger that is the OPENING entry written by the migration, so earlier
+     * times are rejected rather than answered with 0. A card without entries has always had 0.
+     */
+    public BigDecimal balanceAt(Long cardId, LocalDateTime at) {
+        Optional<CardBalanceSnapshot> snapshot =
+                cardBalanceSnapshotRepository.findFirstByCardIdAndAsOfLessThanEqualOrderByAsOfDesc(cardId, at);
+        if (snapshot.isEmpty()) {
+            LocalDateTime firstEntryAt = cardTransactionRepository.firstEntryAt(cardId);
+            if (firstEntryAt != null && at.isBefore(firstEntryAt)) {
+                throw new IllegalArgumentException("Balance history of card " + cardId + " starts at " + firstEntryAt);
+            }
+            return cardTransactionRepository.sumUpTo(cardId, at);
+        }
+        return snapshot.get().getBalance()
+                .add(cardTransactionRepository.sumBetween(cardId, snapshot.get().getAsOf(), at));
+    }
+
+    @Scheduled(cron = "${app.ledger.snapshot.cron:0 */15 * * * ?}")
+    public int takeSnapshots() {
+        Timestamp asOf = Timestamp.valueOf(LocalDateTime.now().minusSeconds(snapshotSettleSeconds));
+        Timestamp since = lastSnapshotAsOf;
+        if (since == null) {
+            since = jdbcTemplate.queryForObject(LATEST_SNAPSHOT_AS_OF, Timestamp.class);
+        }
+        List<Long> cardIds = jdbcTemplate.queryForList(CARDS_WITH_NEW_ENTRIES, Long.class,
+                since != null ? since : BEFORE_ANY_ENTRY, asOf);
+        int created = 0;
+
+        for (int from = 0; from < cardIds.size(); from += snapshotChunkSize) {
+            List<Long> chunk = cardIds.subList(from, Math.min(from + snapshotChunkSize, cardIds.size()));
+            String sql = String.format(SNAPSHOT_CARDS, String.join(",", Collections.nCopies(chunk.size(), "?")));
+            List<Object> args = new ArrayList<>(chunk.size() + 3);
+            args.add(asOf);
+            args.add(asOf);
+            args.addAll(chunk);
+            args.add(snapshotMinEntries);
+            Integer inserted = transactionTemplate.execute(status -> jdbcTemplate.update(sql, args.toArray()));
+            created += inserted != null ? inserted : 0;
+        }
+
+        lastSnapshotAsOf = asOf;
+        log.info("Ledger snapshots taken: {} of {} card(s) with new entries as of {}", created, cardIds.size(), asOf);
+        return created;
+    }
+}
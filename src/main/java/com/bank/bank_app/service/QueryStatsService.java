@@ -0,0 +1,283 @@
+package com.bank.bank_app.service;
+
+import com.bank.bank_app.dto.EndpointQueryStats;
+import com.bank.bank_app.dto.QuerySample;
+import com.bank.bank_app.dto.QueryStatsReport;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+/**
+ * Per-endpoint JDBC statement statistics, fed by QueryInspectingDataSource.
+ * The endpoint is bound to the request thread by QueryAttributionInterceptor; statements issued
+ * outside a handler (scheduled jobs, streaming exports, the auth filter) are counted as "background".
+ * Within one request, a statement shape executed repeatedShapeThreshold times is reported as a
+ * suspected N+1. Slow statements are logged with their shape and bind types, never bind values.
+ */
+@Service
+public class QueryStatsService implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryStatsService.class);
+
+    public static final String BACKGROUND = "background";
+
+    private static final long[] BUCKET_BOUNDS_MS = {1, 5, 20, 100, 500};
+    private static final String[] BUCKET_NAMES = {"<1ms", "<5ms", "<20ms", "<100ms", "<500ms", ">=500ms"};
+    private static final int MAX_SHAPE_LENGTH = 500;
+    private static final int MAX_CACHED_SHAPES = 2000;
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w$.])\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final ThreadLocal<RequestQueries> CURRENT = new ThreadLocal<>();
+
+    @Value("${app.db.inspection.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.db.inspection.slow-query-ms:200}")
+    private long slowQueryMs = 200;
+
+    @Value("${app.db.inspection.repeated-shape-threshold:5}")
+    private int repeatedShapeThreshold = 5;
+
+    @Value("${app.db.inspection.recent-size:50}")
+    private int recentSize = 50;
+
+    private final Map<String, EndpointCounters> endpoints = new ConcurrentHashMap<>();
+    private final Map<String, String> shapes = new ConcurrentHashMap<>();
+
+    private final ReentrantLock recentLock = new ReentrantLock();
+    private final Deque<QuerySample> slowQueries = new ArrayDeque<>();
+    private final Deque<QuerySample> suspectedNPlusOne = new ArrayDeque<>();
+
+    private volatile MeterRegistry registry;
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void beginRequest(String endpoint) {
+        if (enabled) {
+            CURRENT.set(new RequestQueries(endpoint));
+        }
+    }
+
+    public void endRequest() {
+        RequestQueries request = CURRENT.get();
+        if (request == null) {
+            return;
+        }
+        CURRENT.remove();
+        EndpointCounters counters = counters(request.endpoint);
+        counters.requests.increment();
+        counters.maxStatementsPerRequest.accumulateAndGet(request.statements, Math::max);
+        if (request.suspectedNPlusOne) {
+            counters.suspectedNPlusOne.increment();
+        }
+        MeterRegistry registry = this.registry;
+        if (registry != null) {
+            DistributionSummary.builder("bank.db.statements.per.request")
+                    .description("JDBC statements executed per request")
+                    .tag("endpoint", request.endpoint)
+                    .register(registry)
+                    .record(request.statements);
+        }
+    }
+
+    /**
+     * Records one executed statement (a JDBC batch counts once). bindShape holds the Java type of each
+     * bound parameter, or "null".
+     */
+    public void record(String sql, List<String> bindShape, long elapsedNanos) {
+        if (!enabled || sql == null) {
+            return;
+        }
+        RequestQueries request = CURRENT.get();
+        String endpoint = request != null ? request.endpoint : BACKGROUND;
+        String shape = shapeOf(sql);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+
+        EndpointCounters counters = counters(endpoint);
+        counters.statements.increment();
+        counters.totalNanos.add(elapsedNanos);
+        counters.maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+        counters.latency[bucket(elapsedMs)].increment();
+
+        MeterRegistry registry = this.registry;
+        if (registry != null) {
+            Timer.builder("bank.db.statement")
+                    .description("JDBC statement execution time")
+                    .tag("endpoint", endpoint)
+                    .register(registry)
+                    .record(elapsedNanos, TimeUnit.NANOSECONDS);
+        }
+
+        if (elapsedMs >= slowQueryMs) {
+            counters.slowQueries.increment();
+            increment("bank.db.slow.queries", endpoint);
+            log.warn("Slow query on {}: {} ms, binds {}: {}", endpoint, elapsedMs, bindShape, shape);
+            remember(slowQueries, new QuerySample(LocalDateTime.now(), endpoint, shape, List.copyOf(bindShape),
+                    elapsedMs, 1));
+        }
+
+        if (request != null) {
+            request.statements++;
+            int executions = request.executions.merge(shape, 1, Integer::sum);
+            if (executions == repeatedShapeThreshold) {
+                request.suspectedNPlusOne = true;
+                increment("bank.db.n_plus_one", endpoint);
+                log.warn("Possible N+1 on {}: statement executed {} times in one request: {}",
+                        endpoint, executions, shape);
+                remember(suspectedNPlusOne, new QuerySample(LocalDateTime.now(), endpoint, shape,
+                        List.copyOf(bindShape), elapsedMs, executions));
+            }
+        }
+    }
+
+    public QueryStatsReport getReport() {
+        List<EndpointQueryStats> stats = new ArrayList<>();
+        endpoints.forEach((endpoint, counters) -> stats.add(counters.toStats(endpoint)));
+        stats.sort(Comparator.comparingLong(EndpointQueryStats::getStatements).reversed());
+
+        recentLock.lock();
+        try {
+            return new QueryStatsReport(slowQueryMs, repeatedShapeThreshold, stats,
+                    new ArrayList<>(slowQueries), new ArrayList<>(suspectedNPlusOne));
+        } finally {
+            recentLock.unlock();
+        }
+    }
+
+    public void reset() {
+        endpoints.clear();
+        recentLock.lock();
+        try {
+            slowQueries.clear();
+            suspectedNPlusOne.clear();
+        } finally {
+            recentLock.unlock();
+        }
+    }
+
+    // Literals become '?' and parameter lists collapse, so one query with different values (or a
+    // padded IN list of another size) has one shape.
+    static String shape(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = PARAMETER_LIST.matcher(shape).replaceAll("(?...)");
+        shape = WHITESPACE.matcher(shape).replaceAll(" ").trim();
+        return shape.length() > MAX_SHAPE_LENGTH ? shape.substring(0, MAX_SHAPE_LENGTH) + "..." : shape;
+    }
+
+    private String shapeOf(String sql) {
+        String shape = shapes.get(sql);
+        if (shape == null) {
+            shape = shape(sql);
+            if (shapes.size() < MAX_CACHED_SHAPES) {
+                shapes.put(sql, shape);
+            }
+        }
+        return shape;
+    }
+
+    private EndpointCounters counters(String endpoint) {
+        return endpoints.computeIfAbsent(endpoint, e -> new EndpointCounters());
+    }
+
+    private void increment(String name, String endpoint) {
+        MeterRegistry registry = this.registry;
+        if (registry != null) {
+            Counter.builder(name).tag("endpoint", endpoint).register(registry).increment();
+        }
+    }
+
+    private void remember(Deque<QuerySample> samples, QuerySample sample) {
+        recentLock.lock();
+        try {
+            if (samples.size() >= recentSize) {
+                samples.removeFirst();
+            }
+            samples.addLast(sample);
+        } finally {
+            recentLock.unlock();
+        }
+    }
+
+    private static int bucket(long elapsedMs) {
+        for (int i = 0; i < BUCKET_BOUNDS_MS.length; i++) {
+            if (elapsedMs < BUCKET_BOUNDS_MS[i]) {
+                return i;
+            }
+        }
+        return BUCKET_BOUNDS_MS.length;
+    }
+
+    // Only touched by the request's own thread.
+    private static class RequestQueries {
+        private final String endpoint;
+        private final Map<String, Integer> executions = new HashMap<>();
+        private int statements;
+        private boolean suspectedNPlusOne;
+
+        RequestQueries(String endpoint) {
+            this.endpoint = endpoint;
+        }
+    }
+
+    private static class EndpointCounters {
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder statements = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAdder slowQueries = new LongAdder();
+        private final LongAdder suspectedNPlusOne = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLong maxStatementsPerRequest = new AtomicLong();
+        private final LongAdder[] latency = new LongAdder[BUCKET_NAMES.length];
+
+        EndpointCounters() {
+            for (int i = 0; i < latency.length; i++) {
+                latency[i] = new LongAdder();
+            }
+        }
+
+        EndpointQueryStats toStats(String endpoint) {
+            Map<String, Long> histogram = new LinkedHashMap<>();
+            for (int i = 0; i < latency.length; i++) {
+                histogram.put(BUCKET_NAMES[i], latency[i].sum());
+            }
+            return new EndpointQueryStats(endpoint, requests.sum(), statements.sum(), maxStatementsPerRequest.get(),
+                    TimeUnit.NANOSECONDS.toMillis(totalNanos.sum()), TimeUnit.NANOSECONDS.toMillis(maxNanos.get()),
+                    slowQueries.sum(), suspectedNPlusOne.sum(), histogram);
+        }
+    }
+}
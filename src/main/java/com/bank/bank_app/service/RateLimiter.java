@@ -0,0 +1,199 @@
+package com.bank.bank_app.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory token buckets, one per user and endpoint, with limits per role.
+ * A bucket is a single AtomicLong holding the time at which it will be full again (the GCRA form of a
+ * token bucket): a request takes one token by moving that time forward by 1/rate with a CAS, and is
+ * rejected if this would put it more than burst/rate ahead of now. No locks on the request path.
+ * <p>
+ * A full bucket carries no state, so buckets that have been full for idle-timeout are dropped. When the
+ * map reaches max-buckets, idle and then all full buckets are dropped; if it is still full, new keys are
+ * let through without a bucket rather than rejected.
+ */
+@Service
+public class RateLimiter implements MeterBinder {
+
+    @Value("${app.ratelimit.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.ratelimit.user.requests-per-second:20}")
+    private double userRate = 20;
+
+    @Value("${app.ratelimit.user.burst:40}")
+    private int userBurst = 40;
+
+    @Value("${app.ratelimit.admin.requests-per-second:100}")
+    private double adminRate = 100;
+
+    @Value("${app.ratelimit.admin.burst:200}")
+    private int adminBurst = 200;
+
+    @Value("${app.ratelimit.max-buckets:100000}")
+    private int maxBuckets = 100000;
+
+    @Value("${app.ratelimit.idle-timeout-ms:60000}")
+    private long idleTimeoutMs = 60000;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final Map<Key, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicBoolean evicting = new AtomicBoolean();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Takes a token from the user's bucket for the endpoint. Returns 0 if the request may proceed,
+     * otherwise the number of nanoseconds until it would be allowed.
+     */
+    public long tryAcquire(String user, String role, String endpoint) {
+        return tryAcquire(user, role, endpoint, System.nanoTime());
+    }
+
+    long tryAcquire(String user, String role, String endpoint, long now) {
+        if (!enabled) {
+            return 0;
+        }
+        Key key = new Key(user, endpoint);
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = newBucket(key, role, now);
+            if (bucket == null) {
+                meterRegistry.counter("bank.ratelimit.untracked").increment();
+                return 0;
+            }
+        }
+        long wait = bucket.take(now);
+        if (wait > 0) {
+            meterRegistry.counter("bank.ratelimit.rejected", "role", role).increment();
+        }
+        return wait;
+    }
+
+    private Bucket newBucket(Key key, String role, long now) {
+        if (buckets.size() >= maxBuckets) {
+            evict(now, TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs));
+            if (buckets.size() >= maxBuckets) {
+                evict(now, 0);
+            }
+            if (buckets.size() >= maxBuckets) {
+                return null;
+            }
+        }
+        boolean admin = "ROLE_ADMIN".equals(role);
+        double rate = admin ? adminRate : userRate;
+        int burst = admin ? adminBurst : userBurst;
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        return buckets.computeIfAbsent(key, k -> new Bucket(interval, interval * burst, now));
+    }
+
+    @Scheduled(fixedDelayString = "${app.ratelimit.idle-timeout-ms:60000}")
+    public void evictIdle() {
+        evict(System.nanoTime(), TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs));
+    }
+
+    // One sweep at a time; a request that finds a sweep running just checks the size again.
+    // A take() racing with the removal of its full bucket costs at most that one token.
+    private void evict(long now, long idleNanos) {
+        if (evicting.compareAndSet(false, true)) {
+            try {
+                buckets.values().removeIf(bucket -> bucket.fullFor(now) >= idleNanos);
+            } finally {
+                evicting.set(false);
+            }
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("bank.ratelimit.buckets", buckets, Map::size)
+                .description("Rate limit buckets held in memory")
+                .register(registry);
+    }
+
+    public static String endpoint(String method, String path) {
+        return method + " " + normalizePath(path);
+    }
+
+    // Numeric path segments become {id}, so /api/cards/1 and /api/cards/2 share a bucket.
+    static String normalizePath(String path) {
+        StringBuilder normalized = null;
+        int start = 0;
+        while (start < path.length()) {
+            int end = path.indexOf('/', start + 1);
+            if (end < 0) {
+                end = path.length();
+            }
+            boolean numeric = end > start + 1;
+            for (int i = start + 1; i < end && numeric; i++) {
+                numeric = Character.isDigit(path.charAt(i));
+            }
+            if (numeric && normalized == null) {
+                normalized = new StringBuilder(path.length()).append(path, 0, start);
+            }
+            if (normalized != null) {
+                if (numeric) {
+                    normalized.append("/{id}");
+                } else {
+                    normalized.append(path, start, end);
+                }
+            }
+            start = end;
+        }
+        return normalized == null ? path : normalized.toString();
+    }
+
+    private record Key(String user, String endpoint) {}
+
+    private static final class Bucket {
+        private final long interval;
+        private final long capacity;
+        // Time (System.nanoTime) at which the bucket is full again.
+        private final AtomicLong fullAt;
+
+        Bucket(long interval, long capacity, long now) {
+            this.interval = interval;
+            this.capacity = capacity;
+            this.fullAt = new AtomicLong(now);
+        }
+
+        long take(long now) {
+            while (true) {
+                long current = fullAt.get();
+                long next = (current - now < 0 ? now : current) + interval;
+                long ahead = next - now;
+                if (ahead > capacity) {
+                    return ahead - capacity;
+                }
+                if (fullAt.compareAndSet(current, next)) {
+                    return 0;
+                }
+            }
+        }
+
+        long fullFor(long now) {
+            return now - fullAt.get();
+        }
+    }
+}
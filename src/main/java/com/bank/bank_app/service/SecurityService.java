@@ -20,6 +20,8 @@ public class SecurityService implements UserDetailsService {
         this.userRepository = userRepository;
     }
 
+    // findByUsername goes through the natural-id cache (users_by_username and users regions), which
+    // Hibernate keeps in step with role changes and deletes, so there is no separate cache here.
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         return userRepository.findByUsername(username)
@@ -27,15 +29,13 @@ public class SecurityService implements UserDetailsService {
     }
 
     public User getCurrentUser(Authentication authentication) {
-        String username = authentication.getName();
-
-        System.out.println("SecurityService: Ищем пользователя с username = " + username);
+        // JwtAuthFilter already built the principal from the token claims; reuse it.
+        if (authentication.getPrincipal() instanceof User user && user.getId() != null) {
+            return user;
+        }
 
-        User user = userRepository.findByUsername(username)
+        String username = authentication.getName();
+        return userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("Пользователь не найден: " + username));
-
-        System.out.println("SecurityService: Найден пользователь ID=" + user.getId() + ", ROLE=" + user.getRole());
-
-        return user;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,56 @@
+package com.bank.bank_app.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory deny list of revoked token ids (jti). An entry is only needed until the token
+ * itself expires, so expired entries are purged when the map reaches its bound.
+ */
+@Service
+public class TokenRevocationService {
+
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    @Value("${app.jwt.revocation.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.jwt.revocation.max-entries:100000}")
+    private int maxEntries = 100000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void revoke(String tokenId, long expiresAtMillis) {
+        if (!enabled || tokenId == null) {
+            return;
+        }
+        if (revoked.size() >= maxEntries) {
+            evict(System.currentTimeMillis());
+        }
+        revoked.put(tokenId, expiresAtMillis);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (!enabled || tokenId == null || revoked.isEmpty()) {
+            return false;
+        }
+        Long expiresAt = revoked.get(tokenId);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    private void evict(long now) {
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+        // Still full: drop the entries closest to their natural expiry first.
+        while (revoked.size() >= maxEntries && !revoked.isEmpty()) {
+            revoked.entrySet().stream()
+                    .min(Map.Entry.comparingByValue(Comparator.naturalOrder()))
+                    .ifPresent(entry -> revoked.remove(entry.getKey(), entry.getValue()));
+        }
+    }
+}
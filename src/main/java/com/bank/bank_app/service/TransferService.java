@@ -1,37 +1,217 @@
 package com.bank.bank_app.service;
 
+import com.bank.bank_app.dto.TransferRequest;
+import com.bank.bank_app.dto.TransferResult;
 import com.bank.bank_app.entity.Card;
 import com.bank.bank_app.entity.CardStatus;
 import com.bank.bank_app.entity.User;
+import com.bank.bank_app.exception.CardNotFoundException;
 import com.bank.bank_app.exception.InsufficientFundsException;
 import com.bank.bank_app.exception.TransferException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class TransferService {
 
+    private static final Logger log = LoggerFactory.getLogger(TransferService.class);
+
     @Autowired
     private CardService cardService;
 
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.transfer.batch.max-size:5000}")
+    private int maxBatchSize = 5000;
+
     @Transactional
     public void transferBetweenOwnCards(User user, Long fromCardId, Long toCardId, BigDecimal amount) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            transfer(user, fromCardId, toCardId, amount);
+            sample.stop(transferTimer("single", "success"));
+        } catch (RuntimeException e) {
+            sample.stop(transferTimer("single", "failure"));
+            countFailure(e);
+            throw e;
+        }
+    }
+
+    private void transfer(User user, Long fromCardId, Long toCardId, BigDecimal amount) {
 
         if (fromCardId.equals(toCardId)) {
             throw new TransferException("Cannot transfer to the same card");
         }
 
-        Card fromCard = cardService.getCardById(fromCardId);
-        Card toCard = cardService.getCardById(toCardId);
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new TransferException("Amount must be positive");
+        }
+
+        // Both rows are locked in ascending id order, so opposite-direction transfers between the same
+        // pair of cards cannot deadlock. A hot destination card is only share-locked.
+        Map<Long, Card> locked = cardService.lockCardsForTransfer(fromCardId, toCardId).stream()
+                .collect(Collectors.toMap(Card::getId, Function.identity()));
+        Card fromCard = locked.get(fromCardId);
+        Card toCard = locked.get(toCardId);
+
+        checkTransfer(user, fromCard, toCard, fromCard.getBalance(), amount);
+
+        cardService.adjustBalance(fromCardId, amount.negate());
+        cardService.adjustBalance(toCardId, amount);
+        ledgerService.recordTransfer(fromCardId, toCardId, amount);
+
+        log.debug("Transfer {} -> {} completed, amount={}", fromCardId, toCardId, amount);
+    }
+
+    @Transactional
+    public List<TransferResult> transferBatch(User user, List<TransferRequest> requests) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            if (requests == null || requests.isEmpty()) {
+                throw new TransferException("Batch must contain at least one transfer");
+            }
+            if (requests.size() > maxBatchSize) {
+                throw new TransferException("Batch size exceeds limit of " + maxBatchSize);
+            }
+
+            List<TransferResult> results = apply(Collections.nCopies(requests.size(), user), requests);
+            sample.stop(transferTimer("batch", "success"));
+            return results;
+        } catch (RuntimeException e) {
+            sample.stop(transferTimer("batch", "failure"));
+            countFailure(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Applies transfers of possibly different users in one transaction, in list order, with one
+     * result per transfer; used by TransferShardExecutor for a group commit.
+     */
+    @Transactional
+    public List<TransferResult> transferGroup(List<User> users, List<TransferRequest> requests) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            List<TransferResult> results = apply(users, requests);
+            sample.stop(transferTimer("group", "success"));
+            return results;
+        } catch (RuntimeException e) {
+            sample.stop(transferTimer("group", "failure"));
+            countFailure(e);
+            throw e;
+        }
+    }
+
+    private List<TransferResult> apply(List<User> users, List<TransferRequest> requests) {
+        Set<Long> cardIds = new TreeSet<>();
+        Set<Long> debitedIds = new HashSet<>();
+        for (TransferRequest request : requests) {
+            if (request.getFromCardId() != null) cardIds.add(request.getFromCardId());
+            if (request.getToCardId() != null) cardIds.add(request.getToCardId());
+            if (request.getFromCardId() != null) debitedIds.add(request.getFromCardId());
+        }
+
+        Map<Long, Card> cards = cardService.lockExistingCardsForTransfer(debitedIds, cardIds).stream()
+                .collect(Collectors.toMap(Card::getId, Function.identity()));
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        TreeMap<Long, BigDecimal> deltas = new TreeMap<>();
+        List<TransferResult> results = new ArrayList<>(requests.size());
+        List<TransferRequest> applied = new ArrayList<>(requests.size());
+
+        for (int i = 0; i < requests.size(); i++) {
+            TransferRequest request = requests.get(i);
+            try {
+                Long fromCardId = request.getFromCardId();
+                Long toCardId = request.getToCardId();
+                BigDecimal amount = request.getAmount();
+
+                if (fromCardId == null || toCardId == null) {
+                    throw new TransferException("Card ids are required");
+                }
+                if (fromCardId.equals(toCardId)) {
+                    throw new TransferException("Cannot transfer to the same card");
+                }
+                if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+                    throw new TransferException("Amount must be positive");
+                }
+
+                Card fromCard = cards.get(fromCardId);
+                if (fromCard == null) {
+                    throw new CardNotFoundException(fromCardId);
+                }
+                Card toCard = cards.get(toCardId);
+                if (toCard == null) {
+                    throw new CardNotFoundException(toCardId);
+                }
+
+                BigDecimal fromBalance = balances.computeIfAbsent(fromCardId, id -> fromCard.getBalance());
+                BigDecimal toBalance = balances.computeIfAbsent(toCardId, id -> toCard.getBalance());
+
+                checkTransfer(users.get(i), fromCard, toCard, fromBalance, amount);
+
+                balances.put(fromCardId, fromBalance.subtract(amount));
+                balances.put(toCardId, toBalance.add(amount));
+                deltas.merge(fromCardId, amount.negate(), BigDecimal::add);
+                deltas.merge(toCardId, amount, BigDecimal::add);
+                applied.add(request);
+                results.add(TransferResult.success(i, request));
+            } catch (RuntimeException e) {
+                countFailure(e);
+                results.add(TransferResult.failure(i, request, e.getMessage()));
+            }
+        }
+
+        cardService.applyBalanceDeltas(deltas);
+        ledgerService.recordTransfers(applied);
+        return results;
+    }
+
+    private Timer transferTimer(String type, String outcome) {
+        return Timer.builder("bank.transfer")
+                .description("Transfers between own cards")
+                .tag("type", type)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
 
-        if (!fromCard.getUser().getId().equals(user.getId())) {
+    private void countFailure(RuntimeException e) {
+        Counter.builder("bank.transfer.failures")
+                .description("Rejected transfers by exception type")
+                .tag("exception", e.getClass().getSimpleName())
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private void checkTransfer(User user, Card fromCard, Card toCard, BigDecimal available, BigDecimal amount) {
+        if (!user.getId().equals(fromCard.getUserId())) {
             throw new TransferException("Source card does not belong to user");
         }
 
-        if (!toCard.getUser().getId().equals(user.getId())) {
+        if (!user.getId().equals(toCard.getUserId())) {
             throw new TransferException("Destination card does not belong to user");
         }
 
@@ -43,24 +223,8 @@ public class TransferService {
             throw new TransferException("Destination card is not active");
         }
 
-        if (fromCard.getBalance().compareTo(amount) < 0) {
+        if (available.compareTo(amount) < 0) {
             throw new InsufficientFundsException();
         }
-
-        if (amount.compareTo(BigDecimal.ZERO) <= 0) {
-            throw new TransferException("Amount must be positive");
-        }
-
-        BigDecimal fromNewBalance = fromCard.getBalance().subtract(amount);
-        BigDecimal toNewBalance = toCard.getBalance().add(amount);
-
-        cardService.updateBalance(fromCardId, fromNewBalance);
-        cardService.updateBalance(toCardId, toNewBalance);
-
-        System.out.println("TransferService: Перевод выполнен успешно");
-        System.out.println("   С карты " + fromCardId + " -> на карту " + toCardId);
-        System.out.println("   Сумма: " + amount);
-        System.out.println("   Новый баланс исходной карты: " + fromNewBalance);
-        System.out.println("   Новый баланс целевой карты: " + toNewBalance);
     }
-}
\ No newline at end of file
+}
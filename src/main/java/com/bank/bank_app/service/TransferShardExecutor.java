@@ -0,0 +1,207 @@
+package com.bank.bank_app.service;
+
+import com.bank.bank_app.dto.TransferRequest;
+import com.bank.bank_app.dto.TransferResult;
+import com.bank.bank_app.entity.User;
+import com.bank.bank_app.exception.TransferException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional execution mode for single transfers (app.transfer.sharded.enabled).
+ * Transfers are routed by source card id to one of a fixed number of shards. Each shard has a bounded
+ * queue and a single writer thread that takes whatever has queued up (at most group-size transfers) and
+ * applies it with {@link TransferService#transferGroup} in one transaction: one row-lock round and one
+ * commit for the whole group instead of one per transfer.
+ * <p>
+ * Guarantees: transfers from one card are applied in submission order, since they share a queue and a
+ * writer. A future completes successfully only after the group's transaction has committed, and fails
+ * if the group rolled back. Balances are re-read under lock for each group, so other writers (admin
+ * top-ups, batch transfers) stay correct. A full queue rejects the transfer immediately.
+ */
+@Service
+public class TransferShardExecutor {
+
+    private static final Logger log = LoggerFactory.getLogger(TransferShardExecutor.class);
+
+    private static final long POLL_MS = 100;
+    private static final long SHUTDOWN_TIMEOUT_MS = 30_000;
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.transfer.sharded.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.transfer.sharded.shards:8}")
+    private int shardCount = 8;
+
+    @Value("${app.transfer.sharded.group-size:64}")
+    private int groupSize = 64;
+
+    @Value("${app.transfer.sharded.queue-capacity:10000}")
+    private int queueCapacity = 10000;
+
+    private Shard[] shards;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        shards = new Shard[shardCount];
+        running = true;
+        for (int i = 0; i < shardCount; i++) {
+            Shard shard = new Shard(new ArrayBlockingQueue<>(queueCapacity));
+            shards[i] = shard;
+            Gauge.builder("bank.transfer.shard.queue", shard.queue, BlockingQueue::size)
+                    .description("Transfers waiting in a shard queue")
+                    .tag("shard", String.valueOf(i))
+                    .register(meterRegistry);
+            shard.thread = Thread.ofPlatform().name("transfer-shard-" + i).start(shard::run);
+        }
+        log.info("Sharded transfers enabled: {} shard(s), group size {}", shardCount, groupSize);
+    }
+
+    // Stops taking new transfers and lets the writers drain what is already queued.
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        if (!running) {
+            return;
+        }
+        running = false;
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(SHUTDOWN_TIMEOUT_MS);
+        for (Shard shard : shards) {
+            long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            shard.thread.join(Math.max(1, remaining));
+            if (shard.thread.isAlive()) {
+                log.warn("Transfer shard {} did not drain in time, {} transfer(s) left", shard.thread.getName(),
+                        shard.queue.size());
+                shard.thread.interrupt();
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public CompletableFuture<Void> submit(User user, TransferRequest request) {
+        if (!running) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Sharded transfers are not running"));
+        }
+        // Cheap rejections do not need a queue slot; the rest is checked by the writer under lock.
+        Long fromCardId = request.getFromCardId();
+        Long toCardId = request.getToCardId();
+        BigDecimal amount = request.getAmount();
+        if (fromCardId == null || toCardId == null) {
+            return CompletableFuture.failedFuture(new TransferException("Card ids are required"));
+        }
+        if (fromCardId.equals(toCardId)) {
+            return CompletableFuture.failedFuture(new TransferException("Cannot transfer to the same card"));
+        }
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            return CompletableFuture.failedFuture(new TransferException("Amount must be positive"));
+        }
+
+        PendingTransfer pending = new PendingTransfer(user, request, new CompletableFuture<>());
+        BlockingQueue<PendingTransfer> queue = shards[shardOf(fromCardId, shards.length)].queue;
+        if (!queue.offer(pending)) {
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Too many pending transfers, retry later"));
+        }
+        if (!running && queue.remove(pending)) {
+            // Lost the race with stop(); the writer may already have finished draining.
+            return CompletableFuture.failedFuture(new RejectedExecutionException("Sharded transfers are not running"));
+        }
+        return pending.result();
+    }
+
+    static int shardOf(long cardId, int shardCount) {
+        return Math.floorMod(Long.hashCode(cardId * 0x9E3779B97F4A7C15L), shardCount);
+    }
+
+    private void commit(List<PendingTransfer> group) {
+        List<User> users = new ArrayList<>(group.size());
+        List<TransferRequest> requests = new ArrayList<>(group.size());
+        for (PendingTransfer pending : group) {
+            users.add(pending.user());
+            requests.add(pending.request());
+        }
+
+        List<TransferResult> results;
+        try {
+            results = transferService.transferGroup(users, requests);
+        } catch (RuntimeException e) {
+            log.error("Transfer group of {} rolled back: {}", group.size(), e.getMessage());
+            group.forEach(pending -> pending.result().completeExceptionally(e));
+            return;
+        }
+        for (int i = 0; i < group.size(); i++) {
+            TransferResult result = results.get(i);
+            if (result.isSuccess()) {
+                group.get(i).result().complete(null);
+            } else {
+                group.get(i).result().completeExceptionally(new TransferException(result.getMessage()));
+            }
+        }
+    }
+
+    private class Shard {
+        private final BlockingQueue<PendingTransfer> queue;
+        private Thread thread;
+
+        Shard(BlockingQueue<PendingTransfer> queue) {
+            this.queue = queue;
+        }
+
+        void run() {
+            List<PendingTransfer> group = new ArrayList<>(groupSize);
+            while (running || !queue.isEmpty()) {
+                try {
+                    PendingTransfer first = queue.poll(POLL_MS, TimeUnit.MILLISECONDS);
+                    if (first == null) {
+                        continue;
+                    }
+                    // Whatever queued up while the previous group was committing goes into this one.
+                    group.add(first);
+                    queue.drainTo(group, groupSize - 1);
+                    commit(group);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (RuntimeException e) {
+                    log.error("Transfer shard failed", e);
+                    group.forEach(pending -> pending.result().completeExceptionally(e));
+                } finally {
+                    group.clear();
+                }
+            }
+            PendingTransfer left;
+            while ((left = queue.poll()) != null) {
+                left.result().completeExceptionally(new RejectedExecutionException("Transfer service is shutting down"));
+            }
+        }
+    }
+
+    private record PendingTransfer(User user, TransferRequest request, CompletableFuture<Void> result) {}
+}
@@ -0,0 +1,27 @@
+package com.bank.bank_app;
+
+import com.bank.bank_app.entity.Card;
+import com.bank.bank_app.entity.CardStatus;
+import com.bank.bank_app.entity.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Unsaved active cards for the db-tagged tests; pass them to CardService.createCard.
+ */
+public final class TestCards {
+
+    private TestCards() {}
+
+    public static Card newCard(User owner, String ownerName, BigDecimal balance) {
+        Card card = new Card();
+        card.setCardNumber(String.valueOf(4000_0000_0000_0000L + (long) (Math.random() * 1_0000_0000_0000L)));
+        card.setOwnerName(ownerName);
+        card.setExpiryDate(LocalDate.now().plusYears(3));
+        card.setBalance(balance);
+        card.setStatus(CardStatus.ACTIVE);
+        card.setUser(owner);
+        return card;
+    }
+}
@@ -0,0 +1,57 @@
+package com.bank.bank_app.benchmark;
+
+import com.bank.bank_app.service.CardNumberGenerator;
+import com.bank.bank_app.service.EncryptionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * CPU part of POST /api/admin/cards/bulk for 1000 cards: number generation, blind index and
+ * encryption, sequentially and on the common pool as CardIssuanceService does it.
+ * Cards per second = 1000 / score; the database part is not measured here.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BulkIssuanceBenchmark {
+
+    private static final int CARDS = 1000;
+
+    private EncryptionService encryptionService;
+    private CardNumberGenerator generator;
+
+    @Setup
+    public void setUp() throws Exception {
+        encryptionService = new EncryptionService(64, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(encryptionService, "secretKey", new SecretKeySpec(new byte[32], "AES"));
+        encryptionService.setBlindIndexKey(new SecretKeySpec(new byte[32], "HmacSHA256"));
+        generator = new CardNumberGenerator("400000");
+    }
+
+    @Benchmark
+    public String[] sequential() {
+        String[] encrypted = new String[CARDS];
+        IntStream.range(0, CARDS).forEach(i -> encrypted[i] = prepare());
+        return encrypted;
+    }
+
+    @Benchmark
+    public String[] parallel() {
+        String[] encrypted = new String[CARDS];
+        IntStream.range(0, CARDS).parallel().forEach(i -> encrypted[i] = prepare());
+        return encrypted;
+    }
+
+    private String prepare() {
+        String number = generator.generate();
+        return encryptionService.blindIndex(number) + encryptionService.encrypt(number);
+    }
+}
@@ -0,0 +1,57 @@
+package com.bank.bank_app.benchmark;
+
+import com.bank.bank_app.entity.Card;
+import com.bank.bank_app.service.CardService;
+import com.bank.bank_app.service.EncryptionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CardService.maskCardNumber for a card with a stored last4 (the normal case) and for a card
+ * that has not been backfilled yet and needs one decryption.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CardMaskingBenchmark {
+
+    private static final String CARD_NUMBER = "4000123412341234";
+
+    private CardService cardService;
+    private Card withLast4;
+    private Card withoutLast4;
+
+    @Setup
+    public void setUp() {
+        EncryptionService encryptionService = new EncryptionService(64, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(encryptionService, "secretKey", new SecretKeySpec(new byte[32], "AES"));
+        cardService = new CardService();
+        ReflectionTestUtils.setField(cardService, "encryptionService", encryptionService);
+
+        withLast4 = new Card();
+        withLast4.setId(1L);
+        withLast4.setCardNumber(encryptionService.encrypt(CARD_NUMBER));
+        withLast4.setCardLast4(EncryptionService.last4(CARD_NUMBER));
+
+        withoutLast4 = new Card();
+        withoutLast4.setId(2L);
+        withoutLast4.setCardNumber(encryptionService.encrypt(CARD_NUMBER));
+    }
+
+    @Benchmark
+    public String storedLast4() {
+        return cardService.maskCardNumber(withLast4);
+    }
+
+    @Benchmark
+    public String decryptFallback() {
+        return cardService.maskCardNumber(withoutLast4);
+    }
+}
@@ -0,0 +1,38 @@
+package com.bank.bank_app.benchmark;
+
+import com.bank.bank_app.service.CardNumberGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CardNumberGenerator (BIN prefix, ThreadLocalRandom, Luhn check digit) against the former
+ * AdminController.generateCardNumber, which allocated a new Random and a StringBuilder per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class CardNumberGeneratorBenchmark {
+
+    private final CardNumberGenerator generator = new CardNumberGenerator("400000");
+
+    @Benchmark
+    public String current() {
+        return generator.generate();
+    }
+
+    @Benchmark
+    public String legacyNewRandom() {
+        Random random = new Random();
+        StringBuilder cardNumber = new StringBuilder();
+        for (int i = 0; i < 16; i++) {
+            cardNumber.append(random.nextInt(10));
+        }
+        return cardNumber.toString();
+    }
+}
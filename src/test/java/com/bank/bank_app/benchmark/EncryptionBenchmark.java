@@ -0,0 +1,93 @@
+package com.bank.bank_app.benchmark;
+
+import com.bank.bank_app.service.EncryptionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encrypt + decrypt round trip of one card number at 1, 8 and 64 threads.
+ * "legacy" reproduces the former shared Cipher beans; the shared instances are guarded by a
+ * lock here, because without it they corrupt each other and the run fails.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EncryptionBenchmark {
+
+    private static final String CARD_NUMBER = "4000123412341234";
+
+    private EncryptionService encryptionService;
+    private Cipher legacyEncryptionCipher;
+    private Cipher legacyDecryptionCipher;
+    private final Object legacyLock = new Object();
+
+    @Setup
+    public void setUp() throws Exception {
+        SecretKey secretKey = new SecretKeySpec(new byte[32], "AES");
+
+        encryptionService = new EncryptionService(64, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(encryptionService, "secretKey", secretKey);
+
+        legacyEncryptionCipher = Cipher.getInstance("AES");
+        legacyEncryptionCipher.init(Cipher.ENCRYPT_MODE, secretKey);
+        legacyDecryptionCipher = Cipher.getInstance("AES");
+        legacyDecryptionCipher.init(Cipher.DECRYPT_MODE, secretKey);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String pooledGcm_1thread() {
+        return pooledRoundTrip();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String pooledGcm_8threads() {
+        return pooledRoundTrip();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public String pooledGcm_64threads() {
+        return pooledRoundTrip();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String legacyShared_1thread() throws Exception {
+        return legacyRoundTrip();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public String legacyShared_8threads() throws Exception {
+        return legacyRoundTrip();
+    }
+
+    @Benchmark
+    @Threads(64)
+    public String legacyShared_64threads() throws Exception {
+        return legacyRoundTrip();
+    }
+
+    private String pooledRoundTrip() {
+        return encryptionService.decrypt(encryptionService.encrypt(CARD_NUMBER));
+    }
+
+    private String legacyRoundTrip() throws Exception {
+        synchronized (legacyLock) {
+            String encrypted = Base64.getEncoder().encodeToString(legacyEncryptionCipher.doFinal(CARD_NUMBER.getBytes()));
+            return new String(legacyDecryptionCipher.doFinal(Base64.getDecoder().decode(encrypted)));
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.bank.bank_app.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Compares two JMH JSON result files (-rf json) and prints the change per benchmark.
+ * Usage: JmhResultDiff &lt;baseline.json&gt; &lt;current.json&gt; [threshold-percent].
+ * Runs are marked as regressions when they are slower than the baseline by more than the threshold
+ * (10% by default), taking into account whether the mode is throughput or time per operation.
+ */
+public class JmhResultDiff {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args[0].isBlank() || !new File(args[0]).isFile()) {
+            System.out.println("JMH baseline not set or not found, skipping comparison (use -Djmh.baseline=<file>)");
+            return;
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        Map<String, JsonNode> baseline = read(new File(args[0]));
+        Map<String, JsonNode> current = read(new File(args[1]));
+
+        System.out.printf("%-70s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode now = entry.getValue();
+            JsonNode before = baseline.get(entry.getKey());
+            double score = now.path("primaryMetric").path("score").asDouble();
+            String unit = now.path("primaryMetric").path("scoreUnit").asText();
+            if (before == null) {
+                System.out.printf("%-70s %14s %14.3f %9s  %s%n", entry.getKey(), "-", score, "new", unit);
+                continue;
+            }
+            double old = before.path("primaryMetric").path("score").asDouble();
+            double change = old == 0 ? 0 : (score - old) / old * 100;
+            boolean higherIsBetter = "thrpt".equals(now.path("mode").asText());
+            double worse = higherIsBetter ? -change : change;
+            System.out.printf("%-70s %14.3f %14.3f %+8.1f%%  %s%s%n", entry.getKey(), old, score, change, unit,
+                    worse > threshold ? "  REGRESSION" : "");
+        }
+    }
+
+    private static Map<String, JsonNode> read(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode run : new ObjectMapper().readTree(file)) {
+            String key = run.path("benchmark").asText() + ":" + run.path("mode").asText() + paramsOf(run);
+            results.put(key, run);
+        }
+        return results;
+    }
+
+    private static String paramsOf(JsonNode run) {
+        JsonNode params = run.path("params");
+        if (params.isMissingNode() || params.isEmpty()) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder();
+        params.properties().forEach(p -> sb.append(sb.isEmpty() ? "(" : ",")
+                .append(p.getKey()).append('=').append(p.getValue().asText()));
+        return sb.append(')').toString();
+    }
+}
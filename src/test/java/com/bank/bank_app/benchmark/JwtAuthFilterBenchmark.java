@@ -0,0 +1,53 @@
+package com.bank.bank_app.benchmark;
+
+import com.bank.bank_app.config.JwtAuthFilter;
+import com.bank.bank_app.entity.User;
+import com.bank.bank_app.service.JwtService;
+import com.bank.bank_app.service.TokenRevocationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of JwtAuthFilter for a valid bearer token. The token carries the user id and
+ * role, so no SecurityService (database) lookup happens on this path.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthFilterBenchmark {
+
+    private JwtAuthFilter filter;
+    private String authorization;
+
+    @Setup
+    public void setUp() {
+        JwtService jwtService = new JwtService();
+        filter = new JwtAuthFilter(jwtService, null, new TokenRevocationService(), new SimpleMeterRegistry());
+
+        User user = new User("bench", "password", "ROLE_USER");
+        user.setId(1L);
+        authorization = "Bearer " + jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public Object authenticate() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/cards");
+        request.setServletPath("/api/cards");
+        request.addHeader("Authorization", authorization);
+        try {
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+            return SecurityContextHolder.getContext().getAuthentication();
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+}
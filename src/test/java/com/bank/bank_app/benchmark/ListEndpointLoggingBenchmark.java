@@ -0,0 +1,173 @@
+package com.bank.bank_app.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.CoreConstants;
+import ch.qos.logback.core.FileAppender;
+import com.bank.bank_app.dto.CardView;
+import com.bank.bank_app.entity.Card;
+import com.bank.bank_app.entity.CardStatus;
+import com.bank.bank_app.entity.User;
+import com.bank.bank_app.logging.RedactingMessageConverter;
+import com.bank.bank_app.service.CardService;
+import com.bank.bank_app.service.EncryptionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapping one page of 20 cards for GET /api/cards at 8 threads.
+ * "legacyStdout" reproduces the former maskCardNumber: a decryption and four synchronous println
+ * calls per card. "asyncRedacted" writes the same four lines through the async appender and the
+ * redaction converter, "current" is today's list path, which reads last4 and does not log per card.
+ * Log output goes to temporary files so the JMH console stays readable.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class ListEndpointLoggingBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private CardService cardService;
+    private EncryptionService encryptionService;
+    private List<Card> page;
+    private PrintStream legacyOut;
+    private LoggerContext loggerContext;
+    private Logger asyncLogger;
+    private final List<File> logFiles = new ArrayList<>();
+
+    @Setup
+    public void setUp() throws Exception {
+        encryptionService = new EncryptionService(64, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(encryptionService, "secretKey", new SecretKeySpec(new byte[32], "AES"));
+        cardService = new CardService();
+        ReflectionTestUtils.setField(cardService, "encryptionService", encryptionService);
+
+        User owner = new User("bench", "password", "ROLE_USER");
+        owner.setId(1L);
+        page = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            String pan = String.valueOf(4000_1234_0000_0000L + i);
+            Card card = new Card();
+            card.setId((long) i + 1);
+            card.setCardNumber(encryptionService.encrypt(pan));
+            card.setCardLast4(EncryptionService.last4(pan));
+            card.setOwnerName("Bench Owner");
+            card.setExpiryDate(LocalDate.now().plusYears(3));
+            card.setBalance(new BigDecimal("100.00"));
+            card.setStatus(CardStatus.ACTIVE);
+            card.setUser(owner);
+            page.add(card);
+        }
+
+        legacyOut = new PrintStream(new FileOutputStream(tempFile("legacy")), true);
+        asyncLogger = asyncLogger(tempFile("async"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        legacyOut.close();
+        loggerContext.stop();
+        logFiles.forEach(File::delete);
+    }
+
+    @Benchmark
+    public List<String> legacyStdout() {
+        List<String> masked = new ArrayList<>(PAGE_SIZE);
+        for (Card card : page) {
+            legacyOut.println("Masking card ID: " + card.getId());
+            legacyOut.println("Raw card number from DB: " + card.getCardNumber());
+            String decrypted = encryptionService.decrypt(card.getCardNumber());
+            legacyOut.println("Decrypted number: " + decrypted);
+            String maskedNumber = "**** **** **** " + decrypted.substring(12);
+            legacyOut.println("Masked number: " + maskedNumber);
+            masked.add(maskedNumber);
+        }
+        return masked;
+    }
+
+    @Benchmark
+    public List<String> asyncRedacted() {
+        List<String> masked = new ArrayList<>(PAGE_SIZE);
+        for (Card card : page) {
+            asyncLogger.info("Masking card ID: {}", card.getId());
+            asyncLogger.info("Raw card number from DB: {}", card.getCardNumber());
+            String decrypted = encryptionService.decrypt(card.getCardNumber());
+            asyncLogger.info("Decrypted number: {}", decrypted);
+            String maskedNumber = "**** **** **** " + decrypted.substring(12);
+            asyncLogger.info("Masked number: {}", maskedNumber);
+            masked.add(maskedNumber);
+        }
+        return masked;
+    }
+
+    @Benchmark
+    public List<CardView> current() {
+        List<CardView> views = new ArrayList<>(PAGE_SIZE);
+        for (Card card : page) {
+            views.add(cardService.toView(card));
+        }
+        return views;
+    }
+
+    // Same shape as logback-spring.xml (async appender in front of a pattern encoder with %redactedMsg),
+    // built in a private context so the benchmark does not depend on Boot's logging initialisation.
+    private Logger asyncLogger(File file) {
+        loggerContext = new LoggerContext();
+        Map<String, String> rules = new HashMap<>();
+        rules.put("redactedMsg", RedactingMessageConverter.class.getName());
+        loggerContext.putObject(CoreConstants.PATTERN_RULE_REGISTRY, rules);
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern("%d %5p [%t] %logger{39} : %redactedMsg%n");
+        encoder.start();
+
+        FileAppender<ILoggingEvent> fileAppender = new FileAppender<>();
+        fileAppender.setContext(loggerContext);
+        fileAppender.setFile(file.getAbsolutePath());
+        fileAppender.setEncoder(encoder);
+        fileAppender.start();
+
+        AsyncAppender async = new AsyncAppender();
+        async.setContext(loggerContext);
+        async.setQueueSize(8192);
+        async.setNeverBlock(true);
+        async.addAppender(fileAppender);
+        async.start();
+
+        Logger logger = loggerContext.getLogger(CardService.class);
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        logger.addAppender(async);
+        return logger;
+    }
+
+    private File tempFile(String prefix) throws Exception {
+        File file = Files.createTempFile("list-bench-" + prefix, ".log").toFile();
+        logFiles.add(file);
+        return file;
+    }
+}
@@ -0,0 +1,50 @@
+package com.bank.bank_app.benchmark;
+
+import com.bank.bank_app.service.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Cost of one rate limit decision in RateLimitFilter: endpoint key plus a token taken from the bucket.
+ * ownBucket is the usual case (each thread is a different user); sharedBucket has all threads CAS on
+ * one user's bucket. Limits are set high enough that every request is allowed.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(4)
+@State(Scope.Benchmark)
+public class RateLimiterBenchmark {
+
+    private RateLimiter rateLimiter;
+
+    @State(Scope.Thread)
+    public static class ThreadUser {
+        private static final AtomicInteger SEQUENCE = new AtomicInteger();
+        final String name = "bench-" + SEQUENCE.incrementAndGet();
+    }
+
+    @Setup
+    public void setUp() {
+        rateLimiter = new RateLimiter();
+        ReflectionTestUtils.setField(rateLimiter, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(rateLimiter, "userRate", 1e9);
+        ReflectionTestUtils.setField(rateLimiter, "userBurst", 1_000_000);
+    }
+
+    @Benchmark
+    public long ownBucket(ThreadUser user) {
+        return rateLimiter.tryAcquire(user.name, "ROLE_USER", RateLimiter.endpoint("GET", "/api/cards/42"));
+    }
+
+    @Benchmark
+    public long sharedBucket() {
+        return rateLimiter.tryAcquire("bench", "ROLE_USER", RateLimiter.endpoint("GET", "/api/cards/42"));
+    }
+}
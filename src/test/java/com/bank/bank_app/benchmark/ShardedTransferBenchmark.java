@@ -0,0 +1,183 @@
+package com.bank.bank_app.benchmark;
+
+import com.bank.bank_app.dto.TransferRequest;
+import com.bank.bank_app.entity.Card;
+import com.bank.bank_app.entity.CardStatus;
+import com.bank.bank_app.entity.User;
+import com.bank.bank_app.service.CardService;
+import com.bank.bank_app.service.LedgerService;
+import com.bank.bank_app.service.TransferService;
+import com.bank.bank_app.service.TransferShardExecutor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Lock-based vs sharded transfers under high contention: 32 threads moving money between 4 cards.
+ * The database is simulated: locking a card takes a per-card lock that is held until commit, and a
+ * commit costs commitMicros (a WAL flush). The lock-based path pays one commit per transfer while
+ * holding two hot rows; the sharded path pays one per group. Compare the ops/ms of the two methods.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(32)
+@State(Scope.Benchmark)
+public class ShardedTransferBenchmark {
+
+    private static final int CARDS = 4;
+    private static final BigDecimal AMOUNT = new BigDecimal("0.01");
+
+    @Param({"200"})
+    public long commitMicros;
+
+    private TransferService transferService;
+    private TransferShardExecutor executor;
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = new User("bench", "password", "ROLE_USER");
+        user.setId(1L);
+
+        Map<Long, Card> cards = new ConcurrentHashMap<>();
+        for (long id = 1; id <= CARDS; id++) {
+            Card card = new Card();
+            card.setId(id);
+            card.setBalance(new BigDecimal("1000000000.00"));
+            card.setStatus(CardStatus.ACTIVE);
+            card.setUser(user);
+            cards.put(id, card);
+        }
+        SimulatedDatabase database = new SimulatedDatabase(cards.keySet(), TimeUnit.MICROSECONDS.toNanos(commitMicros));
+
+        transferService = new TransferService();
+        ReflectionTestUtils.setField(transferService, "cardService", new LockingCardService(cards, database));
+        ReflectionTestUtils.setField(transferService, "ledgerService", new CommittingLedgerService(database));
+        ReflectionTestUtils.setField(transferService, "meterRegistry", new SimpleMeterRegistry());
+
+        executor = new TransferShardExecutor();
+        ReflectionTestUtils.setField(executor, "transferService", transferService);
+        ReflectionTestUtils.setField(executor, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(executor, "enabled", true);
+        executor.start();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        executor.stop();
+    }
+
+    @Benchmark
+    public void lockBased() {
+        long[] pair = randomPair();
+        transferService.transferBetweenOwnCards(user, pair[0], pair[1], AMOUNT);
+    }
+
+    @Benchmark
+    public void sharded() {
+        long[] pair = randomPair();
+        executor.submit(user, new TransferRequest(pair[0], pair[1], AMOUNT)).join();
+    }
+
+    private static long[] randomPair() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long from = random.nextInt(CARDS) + 1;
+        long to = from % CARDS + 1 + random.nextInt(CARDS - 1);
+        return new long[]{from, to > CARDS ? to - CARDS : to};
+    }
+
+    // Row locks held until commit, like SELECT ... FOR UPDATE in a transaction.
+    private static class SimulatedDatabase {
+
+        private final Map<Long, ReentrantLock> rowLocks = new ConcurrentHashMap<>();
+        private final ThreadLocal<List<ReentrantLock>> held = ThreadLocal.withInitial(ArrayList::new);
+        private final long commitNanos;
+
+        SimulatedDatabase(Collection<Long> ids, long commitNanos) {
+            ids.forEach(id -> rowLocks.put(id, new ReentrantLock()));
+            this.commitNanos = commitNanos;
+        }
+
+        void lock(Collection<Long> ids) {
+            ids.stream().sorted().distinct().forEach(id -> {
+                ReentrantLock lock = rowLocks.get(id);
+                lock.lock();
+                held.get().add(lock);
+            });
+        }
+
+        void commit() {
+            LockSupport.parkNanos(commitNanos);
+            held.get().forEach(ReentrantLock::unlock);
+            held.get().clear();
+        }
+    }
+
+    private static class LockingCardService extends CardService {
+
+        private final Map<Long, Card> cards;
+        private final SimulatedDatabase database;
+
+        LockingCardService(Map<Long, Card> cards, SimulatedDatabase database) {
+            this.cards = cards;
+            this.database = database;
+        }
+
+        @Override
+        public List<Card> lockCardsForTransfer(Long fromCardId, Long toCardId) {
+            return lockExistingCardsForTransfer(List.of(fromCardId), Arrays.asList(fromCardId, toCardId));
+        }
+
+        @Override
+        public List<Card> lockExistingCardsForTransfer(Collection<Long> debitedIds, Collection<Long> ids) {
+            database.lock(ids);
+            return ids.stream().sorted().distinct().map(cards::get).toList();
+        }
+
+        @Override
+        public void adjustBalance(Long id, BigDecimal delta) {
+            cards.get(id).setBalance(cards.get(id).getBalance().add(delta));
+        }
+
+        @Override
+        public void applyBalanceDeltas(SortedMap<Long, BigDecimal> deltas) {
+            deltas.forEach(this::adjustBalance);
+        }
+    }
+
+    // The ledger insert is the last statement of both paths, so the commit is simulated there.
+    private static class CommittingLedgerService extends LedgerService {
+
+        private final SimulatedDatabase database;
+
+        CommittingLedgerService(SimulatedDatabase database) {
+            this.database = database;
+        }
+
+        @Override
+        public void recordTransfer(Long fromCardId, Long toCardId, BigDecimal amount) {
+            database.commit();
+        }
+
+        @Override
+        public void recordTransfers(List<TransferRequest> transfers) {
+            database.commit();
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.bank.bank_app.benchmark;
+
+import com.bank.bank_app.dto.TransferRequest;
+import com.bank.bank_app.dto.TransferResult;
+import com.bank.bank_app.entity.Card;
+import com.bank.bank_app.entity.CardStatus;
+import com.bank.bank_app.entity.User;
+import com.bank.bank_app.service.CardService;
+import com.bank.bank_app.service.LedgerService;
+import com.bank.bank_app.service.TransferService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TransferService validation and bookkeeping without a database: CardService is replaced by an
+ * in-memory store, so the numbers show the Java-side cost of a transfer and of a 100-item batch.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TransferServiceBenchmark {
+
+    private static final int CARDS = 10;
+    private static final BigDecimal AMOUNT = new BigDecimal("0.01");
+
+    private TransferService transferService;
+    private User user;
+    private List<TransferRequest> batch;
+
+    @Setup
+    public void setUp() {
+        user = new User("bench", "password", "ROLE_USER");
+        user.setId(1L);
+
+        Map<Long, Card> cards = new ConcurrentHashMap<>();
+        for (long id = 1; id <= CARDS; id++) {
+            Card card = new Card();
+            card.setId(id);
+            card.setBalance(new BigDecimal("1000000000.00"));
+            card.setStatus(CardStatus.ACTIVE);
+            card.setUser(user);
+            cards.put(id, card);
+        }
+
+        transferService = new TransferService();
+        ReflectionTestUtils.setField(transferService, "cardService", new InMemoryCardService(cards));
+        ReflectionTestUtils.setField(transferService, "ledgerService", new NoOpLedgerService());
+        ReflectionTestUtils.setField(transferService, "meterRegistry", new SimpleMeterRegistry());
+
+        batch = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            long from = i % CARDS + 1;
+            batch.add(new TransferRequest(from, from % CARDS + 1, AMOUNT));
+        }
+    }
+
+    @Benchmark
+    public void single() {
+        transferService.transferBetweenOwnCards(user, 1L, 2L, AMOUNT);
+    }
+
+    @Benchmark
+    public List<TransferResult> batchOf100() {
+        return transferService.transferBatch(user, batch);
+    }
+
+    private static class InMemoryCardService extends CardService {
+
+        private final Map<Long, Card> cards;
+
+        InMemoryCardService(Map<Long, Card> cards) {
+            this.cards = cards;
+        }
+
+        @Override
+        public List<Card> lockCardsForTransfer(Long fromCardId, Long toCardId) {
+            return lockExistingCardsForTransfer(List.of(fromCardId), Arrays.asList(fromCardId, toCardId));
+        }
+
+        @Override
+        public List<Card> lockExistingCardsForTransfer(Collection<Long> debitedIds, Collection<Long> ids) {
+            return ids.stream().sorted().distinct().map(cards::get).toList();
+        }
+
+        @Override
+        public void adjustBalance(Long id, BigDecimal delta) {
+            cards.get(id).setBalance(cards.get(id).getBalance().add(delta));
+        }
+
+        @Override
+        public void applyBalanceDeltas(SortedMap<Long, BigDecimal> deltas) {
+            deltas.forEach(this::adjustBalance);
+        }
+    }
+
+    // Ledger rows are plain batched inserts; the benchmark measures the transfer logic around them.
+    private static class NoOpLedgerService extends LedgerService {
+
+        @Override
+        public void recordTransfer(Long fromCardId, Long toCardId, BigDecimal amount) {
+        }
+
+        @Override
+        public void recordTransfers(List<TransferRequest> transfers) {
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.bank.bank_app.benchmark;
+
+import com.bank.bank_app.config.DbConcurrencyLimiter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One wave of {@code requests} concurrent requests, each blocking {@code ioMillis} outside the
+ * database (remote calls, response writes) and {@code dbMillis} on a query guarded by the
+ * DbConcurrencyLimiter with the Hikari pool size as permits.
+ * "platform" is Tomcat's default 200-thread pool, "virtual" is spring.threads.virtual.enabled=true.
+ * Throughput is requests / wave time; SampleTime also reports the wave latency percentiles.
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VirtualThreadLoadBenchmark {
+
+    @Param({"platform", "virtual"})
+    public String executor;
+
+    @Param({"2000"})
+    public int requests;
+
+    @Param({"20"})
+    public int dbPermits;
+
+    @Param({"5"})
+    public int ioMillis;
+
+    @Param({"1"})
+    public int dbMillis;
+
+    private ExecutorService executorService;
+    private DbConcurrencyLimiter limiter;
+
+    @Setup
+    public void setUp() {
+        executorService = "virtual".equals(executor)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(200);
+        limiter = new DbConcurrencyLimiter(dbPermits, TimeUnit.MINUTES.toMillis(1));
+    }
+
+    @TearDown
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Benchmark
+    public int wave() throws Exception {
+        List<Future<?>> futures = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            futures.add(executorService.submit(this::handleRequest));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        return futures.size();
+    }
+
+    private Void handleRequest() throws Exception {
+        Thread.sleep(ioMillis);
+        limiter.acquire();
+        try {
+            Thread.sleep(dbMillis);
+        } finally {
+            limiter.release();
+        }
+        return null;
+    }
+}
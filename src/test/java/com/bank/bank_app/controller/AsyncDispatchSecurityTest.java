@@ -0,0 +1,136 @@
+package com.bank.bank_app.controller;
+
+import com.bank.bank_app.config.SecurityConfig;
+import com.bank.bank_app.entity.User;
+import com.bank.bank_app.service.CardExportService;
+import com.bank.bank_app.service.CardIssuanceService;
+import com.bank.bank_app.service.CardService;
+import com.bank.bank_app.service.IdempotencyService;
+import com.bank.bank_app.service.JwtService;
+import com.bank.bank_app.service.LedgerService;
+import com.bank.bank_app.service.QueryStatsService;
+import com.bank.bank_app.service.RateLimiter;
+import com.bank.bank_app.service.SecurityService;
+import com.bank.bank_app.service.TokenRevocationService;
+import com.bank.bank_app.service.TransferService;
+import com.bank.bank_app.service.TransferShardExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Async handlers finish in a second, ASYNC dispatch that JwtAuthFilter does not run on; the
+ * authentication from the bearer token has to survive into it. Real security chain and JWT, no database.
+ */
+@WebMvcTest({CardController.class, AdminController.class})
+@Import({SecurityConfig.class, JwtService.class, AsyncDispatchSecurityTest.Metrics.class})
+class AsyncDispatchSecurityTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @MockitoBean
+    private CardService cardService;
+
+    @MockitoBean
+    private TransferService transferService;
+
+    @MockitoBean
+    private TransferShardExecutor transferShardExecutor;
+
+    @MockitoBean
+    private IdempotencyService idempotencyService;
+
+    @MockitoBean
+    private LedgerService ledgerService;
+
+    @MockitoBean
+    private CardExportService cardExportService;
+
+    @MockitoBean
+    private CardIssuanceService cardIssuanceService;
+
+    @MockitoBean
+    private QueryStatsService queryStatsService;
+
+    @MockitoBean
+    private SecurityService securityService;
+
+    @MockitoBean
+    private TokenRevocationService tokenRevocationService;
+
+    @MockitoBean
+    private RateLimiter rateLimiter;
+
+    private final User user = new User("async-user", "password", "ROLE_USER");
+    private final User admin = new User("async-admin", "password", "ROLE_ADMIN");
+
+    @BeforeEach
+    void setUp() {
+        user.setId(1L);
+        admin.setId(2L);
+        when(securityService.getCurrentUser(any())).thenReturn(user);
+    }
+
+    @Test
+    void transfer_CompletesAuthenticatedInAsyncDispatch() throws Exception {
+        MvcResult result = mockMvc.perform(post("/api/cards/transfer")
+                        .header("Authorization", "Bearer " + jwtService.generateToken(user))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"fromCardId\":1,\"toCardId\":2,\"amount\":10.00}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // spring.mvc.async.request-timeout: the long export timeout must not leak into transfers.
+        assertEquals(30000L, result.getRequest().getAsyncContext().getTimeout());
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+        verify(transferService).transferBetweenOwnCards(any(), any(), any(), any());
+    }
+
+    @Test
+    void export_CompletesAuthenticatedInAsyncDispatch() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/admin/cards/export")
+                        .header("Authorization", "Bearer " + jwtService.generateToken(admin)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // app.export.timeout-ms, set by the export endpoint for its own request only.
+        assertEquals(3600000L, result.getRequest().getAsyncContext().getTimeout());
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk());
+        verify(cardExportService).exportCards(any(), any(), any());
+    }
+
+    @TestConfiguration
+    static class Metrics {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.bank.bank_app.controller;
+
+import com.bank.bank_app.exception.CardNotFoundException;
+import com.bank.bank_app.exception.InsufficientFundsException;
+import com.bank.bank_app.exception.TransferException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardControllerTest {
+
+    @Test
+    void transferFailed_RejectedTransferIsBadRequest() {
+        assertEquals(HttpStatus.BAD_REQUEST, CardController.transferFailed(new TransferException("Amount must be positive")).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, CardController.transferFailed(new InsufficientFundsException("Insufficient funds")).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, CardController.transferFailed(new CardNotFoundException("Card not found")).getStatusCode());
+    }
+
+    @Test
+    void transferFailed_FullOrStoppedQueueIsRetryable() {
+        ResponseEntity<?> response = CardController.transferFailed(new RejectedExecutionException("Too many pending transfers, retry later"));
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("1", response.getHeaders().getFirst("Retry-After"));
+    }
+
+    @Test
+    void transferFailed_UnexpectedErrorIsServerErrorWithoutDetails() {
+        ResponseEntity<?> response = CardController.transferFailed(new IllegalStateException("connection lost"));
+
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+        assertEquals("Transfer failed", response.getBody());
+    }
+}
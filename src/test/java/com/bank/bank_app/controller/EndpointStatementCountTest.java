@@ -0,0 +1,123 @@
+package com.bank.bank_app.controller;
+
+import com.bank.bank_app.entity.Card;
+import com.bank.bank_app.entity.User;
+import com.bank.bank_app.repository.CardRepository;
+import com.bank.bank_app.repository.UserRepository;
+import com.bank.bank_app.service.CardService;
+import com.bank.bank_app.service.JwtService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static com.bank.bank_app.TestCards.newCard;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Exact number of statements Hibernate sends per endpoint. A lazy association that starts loading
+ * per row (N+1) or an eager one that comes back changes these numbers and fails the build.
+ * Statements sent through JdbcTemplate (balance updates, ledger inserts) are not counted.
+ * The second-level cache is off so that counts do not depend on what earlier tests cached.
+ * Needs PostgreSQL with the Liquibase schema: mvn test -Pdb
+ */
+@Tag("db")
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.bank.bank_app.controller.SqlStatementCounter",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+})
+@AutoConfigureMockMvc
+class EndpointStatementCountTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private JwtService jwtService;
+
+    private User user;
+    private Card cardA;
+    private Card cardB;
+    private String bearer;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("stmt-" + UUID.randomUUID(), "password", "ROLE_USER"));
+        cardA = cardService.createCard(newCard(user, "Statement Count", new BigDecimal("1000.00")));
+        cardB = cardService.createCard(newCard(user, "Statement Count", new BigDecimal("1000.00")));
+        bearer = "Bearer " + jwtService.generateToken(user);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cardRepository.deleteAllById(List.of(cardA.getId(), cardB.getId()));
+        userRepository.deleteById(user.getId());
+    }
+
+    @Test
+    void getCard_OneProjectionQuery() throws Exception {
+        assertStatements(1, get("/api/cards/{id}", cardA.getId()));
+    }
+
+    @Test
+    void listCards_OneQueryWithoutOwnerLoads() throws Exception {
+        // Two cards on a page of ten: the page is known to be complete, so no COUNT is needed.
+        assertStatements(1, get("/api/cards").param("size", "10"));
+    }
+
+    @Test
+    void transfer_HibernateSendsOnlyTheRowLock() throws Exception {
+        // The balance updates and ledger inserts of the transfer go through JdbcTemplate and are not counted.
+        assertStatements(1, post("/api/cards/transfer")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"fromCardId\":" + cardA.getId() + ",\"toCardId\":" + cardB.getId() + ",\"amount\":10.00}"));
+    }
+
+    @Test
+    void requestBlock_OwnershipCheckLoadAndUpdate() throws Exception {
+        assertStatements(3, put("/api/cards/{id}/request-block", cardA.getId()));
+    }
+
+    @Test
+    void statement_OwnershipCheckAndOnePage() throws Exception {
+        assertStatements(2, get("/api/cards/{id}/transactions", cardA.getId()));
+    }
+
+    private void assertStatements(int expected, MockHttpServletRequestBuilder request) throws Exception {
+        SqlStatementCounter.reset();
+        MvcResult result = mockMvc.perform(request.header("Authorization", bearer)).andReturn();
+        if (result.getRequest().isAsyncStarted()) {
+            // POST /api/cards/transfer returns a CompletableFuture; in lock mode it is already complete.
+            mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+        } else {
+            assertEquals(200, result.getResponse().getStatus());
+        }
+        List<String> statements = SqlStatementCounter.statements();
+        assertEquals(expected, statements.size(), () -> String.join("\n", statements));
+    }
+}
@@ -0,0 +1,166 @@
+package com.bank.bank_app.repository;
+
+import com.bank.bank_app.controller.SqlStatementCounter;
+import com.bank.bank_app.dto.CardFilter;
+import com.bank.bank_app.entity.CardStatus;
+import com.bank.bank_app.entity.User;
+import com.bank.bank_app.service.CardExpiryService;
+import com.bank.bank_app.service.CardService;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Plan regression checks for the hot card queries. Each check EXPLAINs the statement production
+ * actually sends: the SQL Hibernate generates for the repository calls (captured by
+ * SqlStatementCounter) or the SQL constants of the JDBC code. The generic plan is checked, which is
+ * the one PostgreSQL keeps for a prepared statement after the first executions.
+ * The table is seeded with enough cards and analyzed, so the planner picks indexes on its own.
+ * Needs PostgreSQL 16+ (EXPLAIN GENERIC_PLAN) with the Liquibase schema: mvn test -Pdb
+ */
+@Tag("db")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@SpringBootTest(properties =
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=com.bank.bank_app.controller.SqlStatementCounter")
+class CardQueryPlanTest {
+
+    private static final int USERS = 200;
+    private static final int CARDS_PER_USER = 100;
+
+    // Only cards is large; the stripe subquery of a hot card may scan the small card_balance_stripes.
+    private static final Pattern SEQ_SCAN_ON_CARDS =
+            Pattern.compile("\"Node Type\": \"Seq Scan\",[^{}]*\"Relation Name\": \"cards\"");
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final String prefix = "plan-" + UUID.randomUUID() + "-";
+    private User user;
+
+    @BeforeAll
+    void seed() {
+        jdbcTemplate.update("INSERT INTO users (username, password, role) " +
+                "SELECT ? || g, 'password', 'ROLE_USER' FROM generate_series(1, ?) g", prefix, USERS);
+        // Mostly active cards valid for years; a few blocked, expired or past their expiry date.
+        jdbcTemplate.update("INSERT INTO cards (card_number, card_last4, card_number_hash, owner_name, " +
+                "expiry_date, balance, status, user_id) " +
+                "SELECT 'seed', lpad((g % 10000)::text, 4, '0'), md5(? || g), 'Owner ' || g, " +
+                "current_date + (CASE WHEN g % 100 = 0 THEN -(g % 365) - 1 ELSE g % 1500 END), " +
+                "(g % 100000) / 10.0, " +
+                "CASE WHEN g % 50 = 0 THEN 'EXPIRED' WHEN g % 12 = 0 THEN 'BLOCKED' ELSE 'ACTIVE' END, " +
+                "u.id FROM generate_series(1, ?) g " +
+                "JOIN users u ON u.username = ? || (g % ? + 1)",
+                prefix, USERS * CARDS_PER_USER, prefix, USERS);
+        jdbcTemplate.execute("ANALYZE cards");
+        jdbcTemplate.execute("ANALYZE users");
+        user = userRepository.findByUsername(prefix + 1).orElseThrow();
+    }
+
+    @AfterAll
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM cards WHERE user_id IN (SELECT id FROM users WHERE username LIKE ? || '%')", prefix);
+        jdbcTemplate.update("DELETE FROM users WHERE username LIKE ? || '%'", prefix);
+    }
+
+    @Test
+    void userCardsSlice() {
+        String sql = hibernateSql(() -> cardService.getUserCardsSlice(user, new CardFilter(), 0, PageRequest.of(0, 10, Sort.by("id"))));
+        assertIndexScan(sql, "idx_cards_user_");
+    }
+
+    @Test
+    void userCardsByStatus() {
+        String sql = hibernateSql(() -> cardService.getUserCardsWithFilters(
+                user, new CardFilter(null, CardStatus.BLOCKED), PageRequest.of(0, 10)));
+        assertIndexScan(sql, "idx_cards_user_");
+    }
+
+    @Test
+    void userCardsByBalance() {
+        CardFilter filter = new CardFilter();
+        filter.setBalanceMin(new BigDecimal("100.00"));
+        filter.setBalanceMax(new BigDecimal("500.00"));
+        String sql = hibernateSql(() -> cardService.getUserCardsWithFilters(user, filter, PageRequest.of(0, 10, Sort.by("balance"))));
+        // Filtered on the displayed total (cards.balance plus stripes); only the user_id index can serve it.
+        assertTrue(sql.substring(sql.indexOf(" where ")).contains("card_balance_stripes"), sql);
+        assertIndexScan(sql, "idx_cards_user_");
+    }
+
+    @Test
+    void ownerNameSearch() {
+        // Characters that need escaping keep the pattern in its real escaped form.
+        String sql = hibernateSql(() -> cardService.getAllCards(new CardFilter("owner_1%", null), PageRequest.of(0, 20)));
+        assertTrue(sql.contains("escape"), sql);
+        assertIndexScan(sql, "idx_cards_");
+    }
+
+    @Test
+    void cardNumberLookup() {
+        String sql = hibernateSql(() -> cardService.findByCardNumber("4000000000000002"));
+        assertIndexScan(sql, "idx_cards_card_number_hash");
+    }
+
+    @Test
+    void expirySweepChunk() {
+        assertIndexScan(CardExpiryService.NEXT_CHUNK_SQL, "idx_cards_expiry_candidates");
+    }
+
+    @Test
+    void expirySweepUpdate() {
+        assertIndexScan(CardExpiryService.EXPIRE_CHUNK_SQL, "idx_cards_expiry_candidates");
+    }
+
+    // The first statement on cards, as Hibernate sent it.
+    private String hibernateSql(Runnable call) {
+        SqlStatementCounter.reset();
+        call.run();
+        List<String> statements = SqlStatementCounter.statements();
+        return statements.stream()
+                .filter(sql -> sql.contains(" from cards "))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("No statement on cards in " + statements));
+    }
+
+    private void assertIndexScan(String sql, String index) {
+        String plan = String.join("\n", jdbcTemplate.queryForList(
+                "EXPLAIN (GENERIC_PLAN, FORMAT JSON) " + numberedParameters(sql), String.class));
+
+        assertFalse(SEQ_SCAN_ON_CARDS.matcher(plan).find(), () -> "Sequential scan of cards for: " + sql + "\n" + plan);
+        assertTrue(plan.contains("\"Index Name\": \"" + index), () -> "No " + index + "* scan for: " + sql + "\n" + plan);
+    }
+
+    // GENERIC_PLAN takes $n placeholders; none of the statements has a ? inside a literal.
+    private static String numberedParameters(String sql) {
+        StringBuilder numbered = new StringBuilder(sql.length() + 16);
+        int parameter = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+}
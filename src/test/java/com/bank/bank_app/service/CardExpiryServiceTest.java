@@ -0,0 +1,132 @@
+package com.bank.bank_app.service;
+
+import com.bank.bank_app.dto.ExpirySweepReport;
+import com.bank.bank_app.entity.Card;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.stubbing.OngoingStubbing;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardExpiryServiceTest {
+
+    private static final LocalDate TODAY = LocalDate.of(2025, 1, 1);
+    private static final LocalDate START = LocalDate.of(1, 1, 1);
+    private static final LocalDate JUNE = LocalDate.of(2024, 6, 30);
+    private static final LocalDate DECEMBER = LocalDate.of(2024, 12, 31);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private Cache cache;
+
+    @InjectMocks
+    private CardExpiryService cardExpiryService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cardExpiryService, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cardExpiryService, "chunkSize", 2);
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        lenient().when(entityManagerFactory.getCache()).thenReturn(cache);
+    }
+
+    @Test
+    void expireCards_WalksCandidatesByKeysetAndEvictsUpdatedCards() {
+        whenNextChunk(START, 0L).thenReturn(List.of(key(JUNE, 7L), key(JUNE, 12L)));
+        whenNextChunk(JUNE, 12L).thenReturn(List.of(key(DECEMBER, 3L)));
+        whenExpire(START, 0L, JUNE, 12L).thenReturn(List.of(7L, 12L));
+        whenExpire(JUNE, 12L, DECEMBER, 3L).thenReturn(List.of(3L));
+
+        ExpirySweepReport report = cardExpiryService.expireCards(TODAY, false);
+
+        assertEquals(2, report.getChunks());
+        assertEquals(3, report.getRowsScanned());
+        assertEquals(3, report.getRowsUpdated());
+        verify(transactionTemplate, times(2)).execute(any());
+        verify(cache).evict(Card.class, 7L);
+        verify(cache).evict(Card.class, 12L);
+        verify(cache).evict(Card.class, 3L);
+        verifyNoMoreInteractions(cache);
+    }
+
+    @Test
+    void expireCards_EvictsOnlyRowsTheUpdateChanged() {
+        // Card 12 was expired by someone else between the select and the update.
+        whenNextChunk(START, 0L).thenReturn(List.of(key(JUNE, 7L), key(JUNE, 12L)));
+        whenNextChunk(JUNE, 12L).thenReturn(List.of());
+        whenExpire(START, 0L, JUNE, 12L).thenReturn(List.of(7L));
+
+        ExpirySweepReport report = cardExpiryService.expireCards(TODAY, false);
+
+        assertEquals(2, report.getRowsScanned());
+        assertEquals(1, report.getRowsUpdated());
+        verify(cache).evict(Card.class, 7L);
+        verify(cache, never()).evict(Card.class, 12L);
+    }
+
+    @Test
+    void expireCards_DryRunOnlyCounts() {
+        whenNextChunk(START, 0L).thenReturn(List.of(key(JUNE, 7L)));
+
+        ExpirySweepReport report = cardExpiryService.expireCards(TODAY, true);
+
+        assertTrue(report.isDryRun());
+        assertEquals(1, report.getRowsUpdated());
+        verify(transactionTemplate, never()).execute(any());
+        verify(jdbcTemplate, never()).queryForList(eq(CardExpiryService.EXPIRE_CHUNK_SQL), eq(Long.class), any(Object[].class));
+    }
+
+    @Test
+    void expireCards_NoCandidates() {
+        whenNextChunk(START, 0L).thenReturn(List.of());
+
+        ExpirySweepReport report = cardExpiryService.expireCards(TODAY, false);
+
+        assertEquals(0, report.getChunks());
+        verify(transactionTemplate, never()).execute(any());
+        verifyNoInteractions(cache);
+    }
+
+    @SuppressWarnings("unchecked")
+    private OngoingStubbing<List<CardExpiryService.ExpiryKey>> whenNextChunk(LocalDate afterDate, long afterId) {
+        return when(jdbcTemplate.query(eq(CardExpiryService.NEXT_CHUNK_SQL), any(RowMapper.class),
+                eq(TODAY), eq(afterDate), eq(afterDate), eq(afterId), eq(2)));
+    }
+
+    private OngoingStubbing<List<Long>> whenExpire(LocalDate fromDate, long fromId, LocalDate toDate, long toId) {
+        return when(jdbcTemplate.queryForList(eq(CardExpiryService.EXPIRE_CHUNK_SQL), eq(Long.class),
+                eq(TODAY), eq(fromDate), eq(fromDate), eq(fromId), eq(toDate), eq(toDate), eq(toId)));
+    }
+
+    private static CardExpiryService.ExpiryKey key(LocalDate expiryDate, long id) {
+        return new CardExpiryService.ExpiryKey(expiryDate, id);
+    }
+}
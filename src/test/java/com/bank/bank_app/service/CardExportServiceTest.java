@@ -0,0 +1,70 @@
+package com.bank.bank_app.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardExportServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EncryptionService encryptionService;
+
+    @InjectMocks
+    private CardExportService cardExportService;
+
+    @Test
+    void exportCards_WritesMaskedCsvWithoutDecrypting() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getLong("id")).thenReturn(1L);
+        when(rs.getLong("user_id")).thenReturn(7L);
+        when(rs.wasNull()).thenReturn(false);
+        when(rs.getString("card_last4")).thenReturn("5678");
+        when(rs.getString("card_number")).thenReturn(null);
+        when(rs.getString("owner_name")).thenReturn("Doe, John");
+        when(rs.getDate("expiry_date")).thenReturn(Date.valueOf(LocalDate.of(2028, 1, 31)));
+        when(rs.getBigDecimal("balance")).thenReturn(new BigDecimal("100.50"));
+        when(rs.getString("status")).thenReturn("ACTIVE");
+        doAnswer(inv -> {
+            inv.getArgument(1, RowCallbackHandler.class).processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = cardExportService.exportCards(ExportFormat.CSV, null, out);
+
+        assertEquals(1, rows);
+        assertEquals("id,userId,cardNumber,ownerName,expiryDate,balance,status\r\n" +
+                        "1,7,**** **** **** 5678,\"Doe, John\",2028-01-31,100.50,ACTIVE\r\n",
+                out.toString(StandardCharsets.UTF_8));
+        verifyNoInteractions(encryptionService);
+    }
+
+    @Test
+    void csvField_QuotesOnlyWhenNeeded() {
+        assertEquals("plain", CardExportService.csvField("plain"));
+        assertEquals("\"say \"\"hi\"\"\"", CardExportService.csvField("say \"hi\""));
+        assertEquals("1E+3", CardExportService.csvField("1E+3"));
+        assertEquals("1000", CardExportService.csvField(new BigDecimal("1E+3")));
+        assertEquals("", CardExportService.csvField(null));
+    }
+}
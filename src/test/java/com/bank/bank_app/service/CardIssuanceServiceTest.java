@@ -0,0 +1,57 @@
+package com.bank.bank_app.service;
+
+import com.bank.bank_app.dto.BulkCardRequest;
+import com.bank.bank_app.repository.CardRepository;
+import com.bank.bank_app.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CardIssuanceServiceTest {
+
+    @Mock
+    private CardRepository cardRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private EncryptionService encryptionService;
+
+    @Mock
+    private CardNumberGenerator cardNumberGenerator;
+
+    @InjectMocks
+    private CardIssuanceService cardIssuanceService;
+
+    @Test
+    void uniqueNumbers_RegeneratesDuplicatesAndIssuedNumbers() {
+        when(cardNumberGenerator.generate()).thenReturn("1111", "1111", "2222", "3333");
+        when(encryptionService.blindIndex(anyString())).thenAnswer(inv -> "h" + inv.getArgument(0));
+        when(cardRepository.findExistingHashes(any())).thenReturn(List.of(), List.of("h2222"));
+
+        Map<String, String> numbers = cardIssuanceService.uniqueNumbers(2);
+
+        assertEquals(Map.of("h1111", "1111", "h3333", "3333"), numbers);
+    }
+
+    @Test
+    void issue_RejectsBatchOverLimit() {
+        List<BulkCardRequest> requests = List.of(new BulkCardRequest(1L, "Owner", BigDecimal.ZERO, 10001));
+
+        assertThrows(IllegalArgumentException.class, () -> cardIssuanceService.issue(requests));
+        verifyNoInteractions(userRepository, cardRepository);
+    }
+}
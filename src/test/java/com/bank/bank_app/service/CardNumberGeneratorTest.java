@@ -0,0 +1,34 @@
+package com.bank.bank_app.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardNumberGeneratorTest {
+
+    private final CardNumberGenerator generator = new CardNumberGenerator("400000");
+
+    @Test
+    void generate_BinPrefixedAndLuhnValid() {
+        for (int i = 0; i < 1000; i++) {
+            String number = generator.generate();
+
+            assertEquals(16, number.length());
+            assertTrue(number.startsWith("400000"));
+            assertTrue(CardNumberGenerator.isLuhnValid(number), number);
+        }
+    }
+
+    @Test
+    void isLuhnValid_KnownNumbers() {
+        assertTrue(CardNumberGenerator.isLuhnValid("4111111111111111"));
+        assertTrue(CardNumberGenerator.isLuhnValid("79927398713"));
+        assertFalse(CardNumberGenerator.isLuhnValid("4111111111111112"));
+        assertFalse(CardNumberGenerator.isLuhnValid("4111-1111"));
+    }
+
+    @Test
+    void constructor_RejectsInvalidBin() {
+        assertThrows(IllegalArgumentException.class, () -> new CardNumberGenerator("4000"));
+    }
+}
@@ -1,19 +1,35 @@
 package com.bank.bank_app.service;
 
+import com.bank.bank_app.dto.CardFilter;
+import com.bank.bank_app.dto.CardSlice;
+import com.bank.bank_app.dto.CardView;
 import com.bank.bank_app.entity.Card;
 import com.bank.bank_app.entity.CardStatus;
+import com.bank.bank_app.entity.CardTransactionType;
+import com.bank.bank_app.entity.User;
 import com.bank.bank_app.exception.CardNotFoundException;
 import com.bank.bank_app.repository.CardRepository;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,6 +41,18 @@ class CardServiceTest {
     @Mock
     private EncryptionService encryptionService;
 
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private HotCardBalanceService hotCardBalanceService;
+
     @InjectMocks
     private CardService cardService;
 
@@ -78,4 +106,140 @@ class CardServiceTest {
         assertEquals(CardStatus.ACTIVE, result.getStatus());
         verify(cardRepository).save(card);
     }
-}
\ No newline at end of file
+
+    @Test
+    void createCard_StoresLast4AndBlindIndex() {
+        Card card = new Card();
+        card.setCardNumber("4000123412345678");
+        card.setExpiryDate(LocalDate.now().plusYears(3));
+        card.setStatus(CardStatus.ACTIVE);
+
+        when(encryptionService.blindIndex("4000123412345678")).thenReturn("hash");
+        when(encryptionService.encrypt("4000123412345678")).thenReturn("v1:cipher");
+        when(cardRepository.save(any(Card.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        Card result = cardService.createCard(card);
+
+        assertEquals("5678", result.getCardLast4());
+        assertEquals("hash", result.getCardNumberHash());
+        assertEquals("v1:cipher", result.getCardNumber());
+    }
+
+    @Test
+    void maskCardNumber_UsesLast4WithoutDecrypting() {
+        Card card = new Card();
+        card.setCardNumber("v1:cipher");
+        card.setCardLast4("5678");
+
+        String masked = cardService.maskCardNumber(card);
+
+        assertEquals("**** **** **** 5678", masked);
+        assertEquals("v1:cipher", card.getCardNumber());
+        verifyNoInteractions(encryptionService);
+    }
+
+    @Test
+    void getCardWithMaskedNumber_ReadsProjection() {
+        CardView view = new CardView(1L, "5678", "Owner", LocalDate.now().plusYears(1),
+                BigDecimal.TEN, CardStatus.ACTIVE, 7L);
+        when(cardRepository.findViewById(1L)).thenReturn(Optional.of(view));
+
+        CardView result = cardService.getCardWithMaskedNumber(1L);
+
+        assertEquals("**** **** **** 5678", result.getCardNumber());
+        assertEquals(7L, result.getUserId());
+        verify(cardRepository, never()).findById(any());
+    }
+
+    @Test
+    void getUserCardsSlice_ReturnsCursorOfLastRow() {
+        User user = new User();
+        user.setId(7L);
+        CardView first = new CardView(3L, "1111", "Owner", LocalDate.now().plusYears(1), BigDecimal.ONE, CardStatus.ACTIVE, 7L);
+        CardView second = new CardView(8L, "2222", "Owner", LocalDate.now().plusYears(1), BigDecimal.ONE, CardStatus.ACTIVE, 7L);
+        Pageable pageable = PageRequest.of(0, 2);
+        when(cardRepository.findViewSlice(any(), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(first, second), pageable, true));
+
+        CardSlice slice = cardService.getUserCardsSlice(user, new CardFilter(null, CardStatus.ACTIVE), 2L, pageable);
+
+        assertTrue(slice.isHasNext());
+        assertEquals(8L, CardSlice.decodeCursor(slice.getNextCursor()));
+    }
+
+    @Test
+    void getUserCardsSlice_RejectsNonIdSortForCursor() {
+        User user = new User();
+        user.setId(7L);
+        Pageable pageable = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "balance"));
+
+        assertThrows(IllegalArgumentException.class, () -> {
+            cardService.getUserCardsSlice(user, new CardFilter(), 5L, pageable);
+        });
+        verifyNoInteractions(cardRepository);
+    }
+
+    @Test
+    void adjustBalance_EvictsCachedCard() {
+        Cache cache = mock(Cache.class);
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        when(jdbcTemplate.update("UPDATE cards SET balance = balance + ? WHERE id = ?", new BigDecimal("5.00"), 1L))
+                .thenReturn(1);
+
+        cardService.adjustBalance(1L, new BigDecimal("5.00"));
+
+        verify(cache).evict(Card.class, 1L);
+    }
+
+    @Test
+    void topUp_AppliesDeltaAndRecordsRequestedAmount() {
+        Card card = new Card();
+        card.setId(1L);
+        when(entityManagerFactory.getCache()).thenReturn(mock(Cache.class));
+        when(jdbcTemplate.update("UPDATE cards SET balance = balance + ? WHERE id = ?", new BigDecimal("100.00"), 1L))
+                .thenReturn(1);
+        when(cardRepository.findById(1L)).thenReturn(Optional.of(card));
+
+        assertSame(card, cardService.topUp(1L, new BigDecimal("100.00")));
+
+        verify(ledgerService).recordEntry(1L, new BigDecimal("100.00"), CardTransactionType.ADJUSTMENT);
+        verify(cardRepository, never()).save(any());
+    }
+
+    @Test
+    void adjustBalance_CardNotFound() {
+        when(jdbcTemplate.update("UPDATE cards SET balance = balance + ? WHERE id = ?", BigDecimal.ONE, 999L))
+                .thenReturn(0);
+
+        assertThrows(CardNotFoundException.class, () -> cardService.adjustBalance(999L, BigDecimal.ONE));
+        verifyNoInteractions(entityManagerFactory);
+    }
+
+    @Test
+    void adjustBalance_CreditsHotCardStripe() {
+        Cache cache = mock(Cache.class);
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        when(hotCardBalanceService.isHot(1L)).thenReturn(true);
+        when(hotCardBalanceService.credit(1L, new BigDecimal("5.00"))).thenReturn(true);
+
+        cardService.adjustBalance(1L, new BigDecimal("5.00"));
+
+        verifyNoInteractions(jdbcTemplate);
+        verify(cache).evict(Card.class, 1L);
+    }
+
+    @Test
+    void lockExistingCardsForTransfer_ShareLocksCreditedHotCard() {
+        Card from = new Card();
+        from.setId(1L);
+        Card to = new Card();
+        to.setId(2L);
+        when(hotCardBalanceService.isHot(2L)).thenReturn(true);
+        when(cardRepository.findAllByIdForUpdate(List.of(1L))).thenReturn(List.of(from));
+        when(cardRepository.findAllByIdForShare(List.of(2L))).thenReturn(List.of(to));
+
+        List<Card> locked = cardService.lockCardsForTransfer(1L, 2L);
+
+        assertEquals(List.of(from, to), locked);
+    }
+}
@@ -0,0 +1,92 @@
+package com.bank.bank_app.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EncryptionServiceTest {
+
+    private static final String CARD_NUMBER = "4000123412341234";
+
+    private SecretKey secretKey;
+    private EncryptionService encryptionService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        secretKey = new SecretKeySpec(new byte[32], "AES");
+        encryptionService = new EncryptionService(4, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(encryptionService, "secretKey", secretKey);
+        encryptionService.setBlindIndexKey(new SecretKeySpec(new byte[32], "HmacSHA256"));
+    }
+
+    @Test
+    void encrypt_RoundTripWithVersionedFormat() {
+        String encrypted = encryptionService.encrypt(CARD_NUMBER);
+
+        assertTrue(encrypted.startsWith(EncryptionService.V1_PREFIX));
+        assertEquals(CARD_NUMBER, encryptionService.decrypt(encrypted));
+    }
+
+    @Test
+    void encrypt_UsesFreshNonce() {
+        assertNotEquals(encryptionService.encrypt(CARD_NUMBER), encryptionService.encrypt(CARD_NUMBER));
+    }
+
+    @Test
+    void decrypt_LegacyCiphertext() throws Exception {
+        Cipher legacy = Cipher.getInstance("AES");
+        legacy.init(Cipher.ENCRYPT_MODE, secretKey);
+        String encrypted = Base64.getEncoder().encodeToString(legacy.doFinal(CARD_NUMBER.getBytes()));
+
+        assertEquals(CARD_NUMBER, encryptionService.decrypt(encrypted));
+    }
+
+    @Test
+    void decrypt_TamperedCiphertextFails() {
+        byte[] payload = Base64.getDecoder().decode(
+                encryptionService.encrypt(CARD_NUMBER).substring(EncryptionService.V1_PREFIX.length()));
+        payload[payload.length - 1] ^= 1;
+        String tampered = EncryptionService.V1_PREFIX + Base64.getEncoder().encodeToString(payload);
+
+        assertThrows(RuntimeException.class, () -> encryptionService.decrypt(tampered));
+    }
+
+    @Test
+    void encrypt_ConcurrentCallersDoNotCorruptEachOther() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 2000; i++) {
+                String number = String.format("4000%012d", i);
+                results.add(executor.submit(() -> number.equals(encryptionService.decrypt(encryptionService.encrypt(number)))));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void blindIndex_DeterministicPerCardNumber() {
+        String hash = encryptionService.blindIndex(CARD_NUMBER);
+
+        assertEquals(64, hash.length());
+        assertEquals(hash, encryptionService.blindIndex(CARD_NUMBER));
+        assertNotEquals(hash, encryptionService.blindIndex("4000123412341235"));
+    }
+}
@@ -0,0 +1,106 @@
+package com.bank.bank_app.service;
+
+import com.bank.bank_app.entity.Card;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class HotCardBalanceServiceTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @InjectMocks
+    private HotCardBalanceService hotCardBalanceService;
+
+    @Test
+    void credit_ReturnsFalseForRegularCard() {
+        assertFalse(hotCardBalanceService.credit(1L, BigDecimal.TEN));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void credit_ForgetsCardWhoseStripesAreGone() {
+        makeHot(1L, 4);
+        when(jdbcTemplate.update(startsWith("UPDATE card_balance_stripes"), eq(BigDecimal.TEN), eq(1L), anyInt()))
+                .thenReturn(0);
+
+        assertFalse(hotCardBalanceService.credit(1L, BigDecimal.TEN));
+        assertFalse(hotCardBalanceService.isHot(1L));
+    }
+
+    @Test
+    void debit_FoldsStripesWhenBaseBalanceIsShort() {
+        BigDecimal amount = new BigDecimal("50.00");
+        when(jdbcTemplate.update("UPDATE cards SET balance = balance - ? WHERE id = ? AND balance >= ?", amount, 1L, amount))
+                .thenReturn(0);
+        when(jdbcTemplate.queryForObject(startsWith("WITH folded"), eq(BigDecimal.class), eq(1L), eq(1L)))
+                .thenReturn(new BigDecimal("40.00"));
+        when(jdbcTemplate.update("UPDATE cards SET balance = balance - ? WHERE id = ?", amount, 1L)).thenReturn(1);
+
+        hotCardBalanceService.debit(1L, amount);
+
+        verify(jdbcTemplate).update("UPDATE cards SET balance = balance - ? WHERE id = ?", amount, 1L);
+    }
+
+    @Test
+    void enable_RejectsStripeCountOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> hotCardBalanceService.enable(1L, 1));
+        assertThrows(IllegalArgumentException.class, () -> hotCardBalanceService.enable(1L, 1000));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void consolidate_FoldsStripesAndEvictsCard() {
+        Cache cache = mock(Cache.class);
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        stubHotCard(1L, 4);
+        when(jdbcTemplate.queryForList("SELECT id FROM cards WHERE id = ? FOR UPDATE", Long.class, 1L))
+                .thenReturn(List.of(1L));
+        when(jdbcTemplate.queryForObject(startsWith("WITH folded"), eq(BigDecimal.class), eq(1L), eq(1L)))
+                .thenReturn(new BigDecimal("12.50"));
+
+        assertEquals(1, hotCardBalanceService.consolidate());
+        verify(cache).evict(Card.class, 1L);
+    }
+
+    // The consolidator picks the card up from cards.balance_stripes, as it would after a restart.
+    private void makeHot(Long cardId, int stripes) {
+        stubHotCard(cardId, stripes);
+        hotCardBalanceService.consolidate();
+    }
+
+    private void stubHotCard(Long cardId, int stripes) {
+        doAnswer(inv -> {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getLong("id")).thenReturn(cardId);
+            when(rs.getInt("balance_stripes")).thenReturn(stripes);
+            inv.<RowCallbackHandler>getArgument(1).processRow(rs);
+            return null;
+        }).when(jdbcTemplate).query(startsWith("SELECT id, balance_stripes"), any(RowCallbackHandler.class));
+        when(transactionTemplate.execute(any())).thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+}
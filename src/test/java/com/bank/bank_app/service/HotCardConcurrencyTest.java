@@ -0,0 +1,137 @@
+package com.bank.bank_app.service;
+
+import com.bank.bank_app.entity.Card;
+import com.bank.bank_app.entity.User;
+import com.bank.bank_app.repository.CardRepository;
+import com.bank.bank_app.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.bank.bank_app.TestCards.newCard;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Needs PostgreSQL with the Liquibase schema: mvn test -Pdb
+@Tag("db")
+@SpringBootTest
+class HotCardConcurrencyTest {
+
+    private static final int THREADS = 16;
+    private static final int CREDITS = 300;
+    private static final int DEBITS = 60;
+    private static final BigDecimal START_BALANCE = new BigDecimal("1000.00");
+    private static final BigDecimal TOP_UP = new BigDecimal("10.00");
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private HotCardBalanceService hotCardBalanceService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Card hot;
+    private Card source;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("hot-" + UUID.randomUUID(), "password", "ROLE_USER"));
+        hot = cardService.createCard(newCard(user, "Hot Card Test", START_BALANCE));
+        source = cardService.createCard(newCard(user, "Hot Card Test", START_BALANCE));
+        cardService.setHotCard(hot.getId(), 8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        cardService.setHotCard(hot.getId(), 0);
+        cardRepository.deleteAllById(List.of(hot.getId(), source.getId()));
+        userRepository.deleteById(user.getId());
+    }
+
+    // Stripe credits from transfers and admin top-ups, debits that may borrow from the stripes and
+    // consolidator runs all race on one hot card; nothing may be lost between cards.balance and stripes.
+    @Test
+    void topUpsCreditsAndConsolidation_KeepTotalExact() throws Exception {
+        List<Runnable> tasks = new ArrayList<>();
+        int topUps = 0;
+        for (int i = 0; i < CREDITS; i++) {
+            tasks.add(() -> transferService.transferBetweenOwnCards(user, source.getId(), hot.getId(), BigDecimal.ONE));
+            if (i % 10 == 0) {
+                tasks.add(() -> cardService.topUp(hot.getId(), TOP_UP));
+                topUps++;
+            }
+            if (i % 25 == 0) {
+                tasks.add(() -> hotCardBalanceService.consolidate());
+            }
+            if (i < DEBITS) {
+                tasks.add(() -> transferService.transferBetweenOwnCards(user, hot.getId(), source.getId(), new BigDecimal("2.00")));
+            }
+        }
+        runConcurrently(tasks);
+
+        BigDecimal expected = START_BALANCE
+                .add(BigDecimal.valueOf(CREDITS))
+                .add(TOP_UP.multiply(BigDecimal.valueOf(topUps)))
+                .subtract(new BigDecimal("2.00").multiply(BigDecimal.valueOf(DEBITS)));
+        BigDecimal base = jdbcTemplate.queryForObject("SELECT balance FROM cards WHERE id = ?", BigDecimal.class, hot.getId());
+        BigDecimal stripes = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(amount), 0) FROM card_balance_stripes WHERE card_id = ?", BigDecimal.class, hot.getId());
+
+        assertEquals(0, expected.compareTo(base.add(stripes)), () -> "base " + base + " + stripes " + stripes);
+        assertTrue(base.signum() >= 0);
+    }
+
+    private static void runConcurrently(List<Runnable> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (Runnable task : tasks) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        start.await();
+                        task.run();
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(failures.isEmpty(), () -> "Concurrent operations failed: " + failures);
+    }
+}
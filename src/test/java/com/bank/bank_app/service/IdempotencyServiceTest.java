@@ -0,0 +1,195 @@
+package com.bank.bank_app.service;
+
+import com.bank.bank_app.dto.IdempotentOutcome;
+import com.bank.bank_app.dto.TransferRequest;
+import com.bank.bank_app.entity.IdempotencyRecord;
+import com.bank.bank_app.entity.User;
+import com.bank.bank_app.exception.InsufficientFundsException;
+import com.bank.bank_app.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    private static final String KEY = "7f1c2a9e-retry";
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Mock
+    private TransferService transferService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private IdempotencyService idempotencyService;
+
+    private User user;
+    private TransferRequest request;
+
+    @BeforeEach
+    void setUp() {
+        user = new User("testuser", null, "ROLE_USER");
+        user.setId(1L);
+        request = new TransferRequest(1L, 2L, new BigDecimal("100.00"));
+        lenient().when(transactionTemplate.execute(any()))
+                .thenAnswer(inv -> inv.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void transfer_FirstRequestRunsTransferAndStoresOutcome() {
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, KEY)).thenReturn(Optional.empty());
+        when(idempotencyRecordRepository.saveAndFlush(any())).thenAnswer(inv -> {
+            IdempotencyRecord record = inv.getArgument(0);
+            record.setId(10L);
+            return record;
+        });
+        when(idempotencyRecordRepository.claim(eq(10L), any())).thenReturn(1);
+
+        IdempotentOutcome outcome = idempotencyService.transfer(user, KEY, request);
+
+        assertEquals(200, outcome.getStatusCode());
+        assertFalse(outcome.isReplayed());
+        verify(transferService).transferBetweenOwnCards(user, 1L, 2L, new BigDecimal("100.00"));
+        verify(idempotencyRecordRepository).complete(eq(10L), eq(200), eq(IdempotencyService.SUCCESS_BODY), any());
+    }
+
+    @Test
+    void transfer_RetryIsServedFromCacheWithoutTransfer() {
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, KEY)).thenReturn(Optional.empty());
+        when(idempotencyRecordRepository.saveAndFlush(any())).thenAnswer(inv -> inv.getArgument(0));
+        when(idempotencyRecordRepository.claim(any(), any())).thenReturn(1);
+
+        idempotencyService.transfer(user, KEY, request);
+        IdempotentOutcome retry = idempotencyService.transfer(user, KEY, request);
+
+        assertTrue(retry.isReplayed());
+        assertEquals(200, retry.getStatusCode());
+        verify(transferService, times(1)).transferBetweenOwnCards(any(), any(), any(), any());
+        verify(idempotencyRecordRepository, times(1)).findByUserIdAndIdempotencyKey(1L, KEY);
+    }
+
+    @Test
+    void transfer_StoredOutcomeIsReplayedWithoutTouchingCards() {
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, KEY))
+                .thenReturn(Optional.of(completed(IdempotencyService.requestHash(request), 400, "Insufficient funds for this operation")));
+
+        IdempotentOutcome outcome = idempotencyService.transfer(user, KEY, request);
+
+        assertTrue(outcome.isReplayed());
+        assertEquals(400, outcome.getStatusCode());
+        verifyNoInteractions(transferService);
+        verify(idempotencyRecordRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void transfer_KeyReusedForDifferentRequest() {
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, KEY))
+                .thenReturn(Optional.of(completed("other-hash", 200, IdempotencyService.SUCCESS_BODY)));
+
+        IdempotentOutcome outcome = idempotencyService.transfer(user, KEY, request);
+
+        assertEquals(422, outcome.getStatusCode());
+        verifyNoInteractions(transferService);
+    }
+
+    @Test
+    void transfer_BusinessRejectionIsStored() {
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, KEY)).thenReturn(Optional.empty());
+        when(idempotencyRecordRepository.saveAndFlush(any())).thenAnswer(inv -> {
+            IdempotencyRecord record = inv.getArgument(0);
+            record.setId(10L);
+            return record;
+        });
+        when(idempotencyRecordRepository.claim(eq(10L), any())).thenReturn(1);
+        doThrow(new InsufficientFundsException()).when(transferService)
+                .transferBetweenOwnCards(user, 1L, 2L, new BigDecimal("100.00"));
+
+        IdempotentOutcome outcome = idempotencyService.transfer(user, KEY, request);
+
+        assertEquals(400, outcome.getStatusCode());
+        verify(idempotencyRecordRepository).complete(eq(10L), eq(400), eq("Insufficient funds for this operation"), any());
+        verify(idempotencyRecordRepository, never()).deleteById(any());
+    }
+
+    @Test
+    void transfer_AbandonedReservationIsTakenOverAfterLease() {
+        // Reserved by a request that died before running the transfer; its lease ran out a second ago.
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord abandoned = new IdempotencyRecord(1L, KEY, IdempotencyService.requestHash(request),
+                now.minusSeconds(11), now.minusSeconds(1));
+        abandoned.setId(10L);
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, KEY)).thenReturn(Optional.of(abandoned));
+        when(idempotencyRecordRepository.deleteIfExpired(eq(10L), any())).thenReturn(1);
+        when(idempotencyRecordRepository.saveAndFlush(any())).thenAnswer(inv -> {
+            IdempotencyRecord record = inv.getArgument(0);
+            record.setId(11L);
+            return record;
+        });
+        when(idempotencyRecordRepository.claim(eq(11L), any())).thenReturn(1);
+
+        IdempotentOutcome outcome = idempotencyService.transfer(user, KEY, request);
+
+        assertEquals(200, outcome.getStatusCode());
+        assertFalse(outcome.isReplayed());
+        verify(transferService).transferBetweenOwnCards(user, 1L, 2L, new BigDecimal("100.00"));
+        verify(idempotencyRecordRepository).complete(eq(11L), eq(200), eq(IdempotencyService.SUCCESS_BODY), any());
+    }
+
+    @Test
+    void transfer_ReservationWithinLeaseIsInProgress() {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord running = new IdempotencyRecord(1L, KEY, IdempotencyService.requestHash(request),
+                now, now.plusSeconds(10));
+        running.setId(10L);
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, KEY)).thenReturn(Optional.of(running));
+
+        IdempotentOutcome outcome = idempotencyService.transfer(user, KEY, request);
+
+        assertEquals(409, outcome.getStatusCode());
+        verifyNoInteractions(transferService);
+        verify(idempotencyRecordRepository, never()).deleteIfExpired(any(), any());
+    }
+
+    @Test
+    void transfer_SkipsTransferWhenReservationWasTakenOver() {
+        when(idempotencyRecordRepository.findByUserIdAndIdempotencyKey(1L, KEY)).thenReturn(Optional.empty());
+        when(idempotencyRecordRepository.saveAndFlush(any())).thenAnswer(inv -> {
+            IdempotencyRecord record = inv.getArgument(0);
+            record.setId(10L);
+            return record;
+        });
+        when(idempotencyRecordRepository.claim(eq(10L), any())).thenReturn(0);
+
+        IdempotentOutcome outcome = idempotencyService.transfer(user, KEY, request);
+
+        assertEquals(409, outcome.getStatusCode());
+        verifyNoInteractions(transferService);
+    }
+
+    private static IdempotencyRecord completed(String requestHash, int statusCode, String body) {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord record = new IdempotencyRecord(1L, KEY, requestHash, now, now.plusHours(1));
+        record.setId(10L);
+        record.setStatusCode(statusCode);
+        record.setResponseBody(body);
+        return record;
+    }
+}
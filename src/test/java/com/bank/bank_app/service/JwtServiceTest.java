@@ -0,0 +1,35 @@
+package com.bank.bank_app.service;
+
+import com.bank.bank_app.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtServiceTest {
+
+    private final JwtService jwtService = new JwtService();
+
+    @Test
+    void generateToken_CarriesUserIdAndRole() {
+        User user = new User("testuser", "password", "ROLE_ADMIN");
+        user.setId(42L);
+
+        Claims claims = jwtService.parseToken(jwtService.generateToken(user));
+
+        assertEquals("testuser", claims.getSubject());
+        assertEquals(42L, claims.get(JwtService.USER_ID_CLAIM, Long.class));
+        assertEquals("ROLE_ADMIN", claims.get(JwtService.ROLE_CLAIM, String.class));
+        assertNotNull(claims.getId());
+    }
+
+    @Test
+    void parseToken_RejectsTokenFromAnotherKey() {
+        User user = new User("testuser", "password", "ROLE_USER");
+        user.setId(1L);
+        String foreignToken = new JwtService().generateToken(user);
+
+        assertThrows(JwtException.class, () -> jwtService.parseToken(foreignToken));
+    }
+}
@@ -0,0 +1,128 @@
+package com.bank.bank_app.service;
+
+import com.bank.bank_app.dto.CardSlice;
+import com.bank.bank_app.dto.CardStatement;
+import com.bank.bank_app.dto.CardTransactionView;
+import com.bank.bank_app.entity.CardBalanceSnapshot;
+import com.bank.bank_app.entity.CardTransactionType;
+import com.bank.bank_app.repository.CardBalanceSnapshotRepository;
+import com.bank.bank_app.repository.CardTransactionRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerServiceTest {
+
+    @Mock
+    private CardTransactionRepository cardTransactionRepository;
+
+    @Mock
+    private CardBalanceSnapshotRepository cardBalanceSnapshotRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private LedgerService ledgerService;
+
+    @Test
+    void balanceAt_AddsTailAfterLatestSnapshot() {
+        LocalDateTime at = LocalDateTime.of(2025, 3, 1, 12, 0);
+        LocalDateTime asOf = LocalDateTime.of(2025, 3, 1, 0, 0);
+        CardBalanceSnapshot snapshot = new CardBalanceSnapshot();
+        snapshot.setCardId(1L);
+        snapshot.setBalance(new BigDecimal("500.00"));
+        snapshot.setAsOf(asOf);
+        when(cardBalanceSnapshotRepository.findFirstByCardIdAndAsOfLessThanEqualOrderByAsOfDesc(1L, at))
+                .thenReturn(Optional.of(snapshot));
+        when(cardTransactionRepository.sumBetween(1L, asOf, at)).thenReturn(new BigDecimal("-120.00"));
+
+        assertEquals(new BigDecimal("380.00"), ledgerService.balanceAt(1L, at));
+        verify(cardTransactionRepository, never()).sumUpTo(any(), any());
+    }
+
+    @Test
+    void balanceAt_WithoutSnapshotSumsWholeHistory() {
+        LocalDateTime at = LocalDateTime.of(2025, 3, 1, 12, 0);
+        when(cardBalanceSnapshotRepository.findFirstByCardIdAndAsOfLessThanEqualOrderByAsOfDesc(1L, at))
+                .thenReturn(Optional.empty());
+        when(cardTransactionRepository.firstEntryAt(1L)).thenReturn(at.minusDays(30));
+        when(cardTransactionRepository.sumUpTo(1L, at)).thenReturn(new BigDecimal("75.00"));
+
+        assertEquals(new BigDecimal("75.00"), ledgerService.balanceAt(1L, at));
+    }
+
+    @Test
+    void balanceAt_RejectsTimeBeforeFirstEntry() {
+        // E.g. a card older than the ledger, whose history starts at the migration's OPENING entry.
+        LocalDateTime at = LocalDateTime.of(2025, 3, 1, 12, 0);
+        when(cardBalanceSnapshotRepository.findFirstByCardIdAndAsOfLessThanEqualOrderByAsOfDesc(1L, at))
+                .thenReturn(Optional.empty());
+        when(cardTransactionRepository.firstEntryAt(1L)).thenReturn(at.plusDays(1));
+
+        assertThrows(IllegalArgumentException.class, () -> ledgerService.balanceAt(1L, at));
+        verify(cardTransactionRepository, never()).sumUpTo(any(), any());
+    }
+
+    @Test
+    void getStatement_FetchesOneExtraRowForNextCursor() {
+        List<CardTransactionView> rows = new ArrayList<>();
+        for (long id = 10; id >= 8; id--) {
+            rows.add(new CardTransactionView(id, BigDecimal.TEN, CardTransactionType.TRANSFER_IN, 2L, LocalDateTime.now()));
+        }
+        when(cardTransactionRepository.findStatement(1L, 11L, PageRequest.of(0, 3))).thenReturn(rows);
+
+        CardStatement statement = ledgerService.getStatement(1L, CardSlice.encodeCursor(11L), 2);
+
+        assertEquals(2, statement.getContent().size());
+        assertTrue(statement.isHasNext());
+        assertEquals(9L, CardSlice.decodeCursor(statement.getNextCursor()));
+    }
+
+    @Test
+    void takeSnapshots_OnlyChecksCardsWithEntriesSincePreviousRun() {
+        Timestamp latestSnapshot = Timestamp.valueOf(LocalDateTime.of(2025, 3, 1, 0, 0));
+        when(jdbcTemplate.queryForObject(anyString(), eq(Timestamp.class))).thenReturn(latestSnapshot);
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Timestamp.class), any(Timestamp.class)))
+                .thenReturn(List.of(3L, 7L), List.of());
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<Integer>>getArgument(0).doInTransaction(null));
+        when(jdbcTemplate.update(anyString(), any(Object[].class))).thenReturn(1);
+
+        assertEquals(1, ledgerService.takeSnapshots());
+        assertEquals(0, ledgerService.takeSnapshots());
+
+        // The first run starts at the latest snapshot, the second one at the first run's asOf.
+        ArgumentCaptor<Timestamp> since = ArgumentCaptor.forClass(Timestamp.class);
+        ArgumentCaptor<Timestamp> asOf = ArgumentCaptor.forClass(Timestamp.class);
+        verify(jdbcTemplate, times(2)).queryForList(anyString(), eq(Long.class), since.capture(), asOf.capture());
+        assertEquals(latestSnapshot, since.getAllValues().get(0));
+        assertEquals(asOf.getAllValues().get(0), since.getAllValues().get(1));
+        verify(jdbcTemplate, times(1)).queryForObject(anyString(), eq(Timestamp.class));
+        verify(transactionTemplate, times(1)).execute(any());
+    }
+}
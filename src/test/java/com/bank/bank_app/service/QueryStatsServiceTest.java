@@ -0,0 +1,81 @@
+package com.bank.bank_app.service;
+
+import com.bank.bank_app.dto.EndpointQueryStats;
+import com.bank.bank_app.dto.QueryStatsReport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryStatsServiceTest {
+
+    private final QueryStatsService queryStatsService = new QueryStatsService();
+
+    @AfterEach
+    void tearDown() {
+        queryStatsService.endRequest();
+    }
+
+    @Test
+    void shape_ReplacesLiteralsAndCollapsesParameterLists() {
+        assertEquals("select c1_0.id from cards c1_0 where c1_0.status=? and c1_0.id in (?...) limit ?",
+                QueryStatsService.shape("select c1_0.id from cards c1_0\n  where c1_0.status='ACTIVE' and c1_0.id in (?, ?, ?, ?) limit 10"));
+    }
+
+    @Test
+    void record_AttributesStatementsToCurrentEndpoint() {
+        queryStatsService.beginRequest("CardController.getCard");
+        queryStatsService.record("select * from cards where id=?", List.of("Long"), 1_000);
+        queryStatsService.record("select * from users where id=?", List.of("Long"), 1_000);
+        queryStatsService.endRequest();
+        queryStatsService.record("delete from idempotency_records where expires_at<?", List.of("Timestamp"), 1_000);
+
+        QueryStatsReport report = queryStatsService.getReport();
+        EndpointQueryStats card = endpoint(report, "CardController.getCard");
+        assertEquals(1, card.getRequests());
+        assertEquals(2, card.getStatements());
+        assertEquals(2, card.getMaxStatementsPerRequest());
+        assertEquals(1, endpoint(report, QueryStatsService.BACKGROUND).getStatements());
+    }
+
+    @Test
+    void record_ReportsRepeatedShapeOncePerRequest() {
+        queryStatsService.beginRequest("CardController.getUserCards");
+        for (long id = 1; id <= 8; id++) {
+            queryStatsService.record("select * from users where id=" + id, List.of(), 1_000);
+        }
+        queryStatsService.endRequest();
+
+        QueryStatsReport report = queryStatsService.getReport();
+        assertEquals(1, report.getSuspectedNPlusOne().size());
+        assertEquals("select * from users where id=?", report.getSuspectedNPlusOne().get(0).getSql());
+        assertEquals(1, endpoint(report, "CardController.getUserCards").getSuspectedNPlusOne());
+    }
+
+    @Test
+    void record_KeepsSlowQueryWithBindShape() {
+        ReflectionTestUtils.setField(queryStatsService, "slowQueryMs", 50L);
+
+        queryStatsService.record("update cards set balance=? where id=?", List.of("BigDecimal", "Long"),
+                TimeUnit.MILLISECONDS.toNanos(80));
+
+        QueryStatsReport report = queryStatsService.getReport();
+        assertEquals(1, report.getSlowQueries().size());
+        assertEquals(List.of("BigDecimal", "Long"), report.getSlowQueries().get(0).getBindShape());
+        assertEquals(1, endpoint(report, QueryStatsService.BACKGROUND).getLatencyHistogram().get("<100ms"));
+
+        queryStatsService.reset();
+        assertTrue(queryStatsService.getReport().getSlowQueries().isEmpty());
+    }
+
+    private static EndpointQueryStats endpoint(QueryStatsReport report, String endpoint) {
+        return report.getEndpoints().stream()
+                .filter(stats -> stats.getEndpoint().equals(endpoint))
+                .findFirst()
+                .orElseThrow();
+    }
+}
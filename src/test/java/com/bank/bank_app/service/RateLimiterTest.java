@@ -0,0 +1,78 @@
+package com.bank.bank_app.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final RateLimiter rateLimiter = new RateLimiter();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(rateLimiter, "meterRegistry", new SimpleMeterRegistry());
+    }
+
+    @Test
+    void tryAcquire_AllowsBurstThenRejectsWithWaitTime() {
+        ReflectionTestUtils.setField(rateLimiter, "userRate", 10.0);
+        ReflectionTestUtils.setField(rateLimiter, "userBurst", 5);
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("alice", "ROLE_USER", "GET /api/cards", 0));
+        }
+        assertEquals(SECOND / 10, rateLimiter.tryAcquire("alice", "ROLE_USER", "GET /api/cards", 0));
+
+        // One token refills every 100 ms.
+        assertEquals(0, rateLimiter.tryAcquire("alice", "ROLE_USER", "GET /api/cards", SECOND / 10));
+        assertTrue(rateLimiter.tryAcquire("alice", "ROLE_USER", "GET /api/cards", SECOND / 10) > 0);
+    }
+
+    @Test
+    void tryAcquire_KeepsSeparateBucketsPerUserAndEndpoint() {
+        ReflectionTestUtils.setField(rateLimiter, "userBurst", 1);
+
+        assertEquals(0, rateLimiter.tryAcquire("alice", "ROLE_USER", "GET /api/cards", 0));
+        assertTrue(rateLimiter.tryAcquire("alice", "ROLE_USER", "GET /api/cards", 0) > 0);
+        assertEquals(0, rateLimiter.tryAcquire("alice", "ROLE_USER", "POST /api/cards/transfer", 0));
+        assertEquals(0, rateLimiter.tryAcquire("bob", "ROLE_USER", "GET /api/cards", 0));
+    }
+
+    @Test
+    void tryAcquire_UsesAdminLimitsForAdmins() {
+        ReflectionTestUtils.setField(rateLimiter, "userBurst", 1);
+        ReflectionTestUtils.setField(rateLimiter, "adminBurst", 3);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, rateLimiter.tryAcquire("admin", "ROLE_ADMIN", "GET /api/admin/cards", 0));
+        }
+        assertTrue(rateLimiter.tryAcquire("admin", "ROLE_ADMIN", "GET /api/admin/cards", 0) > 0);
+    }
+
+    @Test
+    void tryAcquire_DropsFullBucketsWhenMapIsFull() {
+        ReflectionTestUtils.setField(rateLimiter, "maxBuckets", 2);
+
+        rateLimiter.tryAcquire("alice", "ROLE_USER", "GET /api/cards", 0);
+        rateLimiter.tryAcquire("bob", "ROLE_USER", "GET /api/cards", 0);
+        assertEquals(2, rateLimiter.size());
+
+        // Both buckets have refilled by now, so they are dropped to make room.
+        assertEquals(0, rateLimiter.tryAcquire("carol", "ROLE_USER", "GET /api/cards", SECOND));
+        assertEquals(1, rateLimiter.size());
+    }
+
+    @Test
+    void normalizePath_ReplacesNumericSegments() {
+        assertEquals("/api/cards/{id}/transactions", RateLimiter.normalizePath("/api/cards/42/transactions"));
+        assertEquals("/api/cards/transfer", RateLimiter.normalizePath("/api/cards/transfer"));
+        assertEquals("GET /api/admin/cards/{id}", RateLimiter.endpoint("GET", "/api/admin/cards/7"));
+    }
+}
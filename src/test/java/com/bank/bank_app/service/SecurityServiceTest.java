@@ -0,0 +1,66 @@
+package com.bank.bank_app.service;
+
+import com.bank.bank_app.entity.User;
+import com.bank.bank_app.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SecurityServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private SecurityService securityService;
+
+    @Test
+    void getCurrentUser_ReusesPrincipalFromFilter() {
+        User principal = new User("testuser", null, "ROLE_USER");
+        principal.setId(1L);
+
+        User result = securityService.getCurrentUser(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+
+        assertSame(principal, result);
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getCurrentUser_LooksUpUsernameWithoutUserPrincipal() {
+        User stored = new User("testuser", "encoded", "ROLE_USER");
+        stored.setId(1L);
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(stored));
+
+        User result = securityService.getCurrentUser(
+                new UsernamePasswordAuthenticationToken("testuser", null, List.of()));
+
+        assertSame(stored, result);
+    }
+
+    @Test
+    void getCurrentUser_RoleChangeIsVisibleOnNextLookup() {
+        // No cache of its own: the next lookup sees what the repository (natural-id cache) returns now.
+        User before = new User("testuser", "encoded", "ROLE_USER");
+        User after = new User("testuser", "encoded", "ROLE_ADMIN");
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.of(before), Optional.of(after));
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken("testuser", null, List.of());
+
+        securityService.getCurrentUser(authentication);
+        User result = securityService.getCurrentUser(authentication);
+
+        assertEquals("ROLE_ADMIN", result.getRole());
+        verify(userRepository, times(2)).findByUsername("testuser");
+    }
+}
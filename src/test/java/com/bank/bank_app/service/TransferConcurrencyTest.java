@@ -0,0 +1,155 @@
+package com.bank.bank_app.service;
+
+import com.bank.bank_app.entity.Card;
+import com.bank.bank_app.entity.User;
+import com.bank.bank_app.repository.CardRepository;
+import com.bank.bank_app.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.bank.bank_app.TestCards.newCard;
+import static org.junit.jupiter.api.Assertions.*;
+
+// Needs PostgreSQL with the Liquibase schema: mvn test -Pdb
+@Tag("db")
+@SpringBootTest
+class TransferConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int FORWARD_TRANSFERS = 300;
+    private static final int BACKWARD_TRANSFERS = 100;
+    private static final BigDecimal START_BALANCE = new BigDecimal("10000.00");
+    private static final BigDecimal TOP_UP = new BigDecimal("25.00");
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private CardService cardService;
+
+    @Autowired
+    private CardRepository cardRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User user;
+    private Card cardA;
+    private Card cardB;
+
+    @BeforeEach
+    void setUp() {
+        user = userRepository.save(new User("stress-" + UUID.randomUUID(), "password", "ROLE_USER"));
+        cardA = cardService.createCard(newCard(user, "Stress Test", START_BALANCE));
+        cardB = cardService.createCard(newCard(user, "Stress Test", START_BALANCE));
+    }
+
+    @AfterEach
+    void tearDown() {
+        cardRepository.deleteAllById(List.of(cardA.getId(), cardB.getId()));
+        userRepository.deleteById(user.getId());
+    }
+
+    // Transfers both ways, admin top-ups and admin saves of the card entity (activate merges a possibly
+    // cached copy) all race on the same two rows; every balance write must be an atomic delta.
+    @Test
+    void parallelTransfersOnHotCards_NoLostUpdates() throws Exception {
+        List<Runnable> tasks = new ArrayList<>();
+        int topUps = 0;
+        for (int i = 0; i < FORWARD_TRANSFERS + BACKWARD_TRANSFERS; i++) {
+            boolean forward = i % 4 != 0;
+            Long from = forward ? cardA.getId() : cardB.getId();
+            Long to = forward ? cardB.getId() : cardA.getId();
+            tasks.add(() -> transferService.transferBetweenOwnCards(user, from, to, BigDecimal.ONE));
+            if (i % 20 == 0) {
+                tasks.add(() -> cardService.topUp(cardA.getId(), TOP_UP));
+                tasks.add(() -> cardService.topUp(cardB.getId(), TOP_UP));
+                topUps++;
+            }
+            if (i % 50 == 0) {
+                tasks.add(() -> cardService.activateCard(cardA.getId()));
+                tasks.add(() -> cardService.activateCard(cardB.getId()));
+            }
+        }
+        runConcurrently(tasks);
+
+        BigDecimal net = BigDecimal.valueOf(FORWARD_TRANSFERS - BACKWARD_TRANSFERS);
+        BigDecimal added = TOP_UP.multiply(BigDecimal.valueOf(topUps));
+        BigDecimal balanceA = cardRepository.findById(cardA.getId()).orElseThrow().getBalance();
+        BigDecimal balanceB = cardRepository.findById(cardB.getId()).orElseThrow().getBalance();
+
+        assertEquals(0, START_BALANCE.add(added).subtract(net).compareTo(balanceA));
+        assertEquals(0, START_BALANCE.add(added).add(net).compareTo(balanceB));
+    }
+
+    @Test
+    void topUpDuringTransfers_LedgerRecordsRequestedAmount() throws Exception {
+        BigDecimal topUp = new BigDecimal("100.00");
+        List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < FORWARD_TRANSFERS; i++) {
+            tasks.add(() -> transferService.transferBetweenOwnCards(user, cardA.getId(), cardB.getId(), BigDecimal.ONE));
+            if (i % 30 == 0) {
+                tasks.add(() -> cardService.topUp(cardA.getId(), topUp));
+            }
+        }
+        int topUps = FORWARD_TRANSFERS / 30;
+        runConcurrently(tasks);
+
+        BigDecimal expected = START_BALANCE.add(topUp.multiply(BigDecimal.valueOf(topUps)))
+                .subtract(BigDecimal.valueOf(FORWARD_TRANSFERS));
+        assertEquals(0, expected.compareTo(cardRepository.findById(cardA.getId()).orElseThrow().getBalance()));
+
+        List<BigDecimal> adjustments = jdbcTemplate.queryForList(
+                "SELECT amount FROM card_transactions WHERE card_id = ? AND type = 'ADJUSTMENT'",
+                BigDecimal.class, cardA.getId());
+        assertEquals(topUps, adjustments.size());
+        adjustments.forEach(amount -> assertEquals(0, topUp.compareTo(amount)));
+    }
+
+    private static void runConcurrently(List<Runnable> tasks) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        ConcurrentLinkedQueue<Throwable> failures = new ConcurrentLinkedQueue<>();
+        List<Future<?>> futures = new ArrayList<>();
+
+        try {
+            for (Runnable task : tasks) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        start.await();
+                        task.run();
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertTrue(failures.isEmpty(), () -> "Concurrent operations failed: " + failures);
+    }
+}
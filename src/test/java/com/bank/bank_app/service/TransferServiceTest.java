@@ -1,19 +1,28 @@
 package com.bank.bank_app.service;
 
+import com.bank.bank_app.dto.TransferRequest;
+import com.bank.bank_app.dto.TransferResult;
 import com.bank.bank_app.entity.Card;
 import com.bank.bank_app.entity.CardStatus;
 import com.bank.bank_app.entity.User;
 import com.bank.bank_app.exception.InsufficientFundsException;
 import com.bank.bank_app.exception.TransferException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -22,9 +31,19 @@ class TransferServiceTest {
     @Mock
     private CardService cardService;
 
+    @Mock
+    private LedgerService ledgerService;
+
     @InjectMocks
     private TransferService transferService;
 
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(transferService, "meterRegistry", meterRegistry);
+    }
+
     @Test
     void transferBetweenOwnCards_Success() {
         User user = new User();
@@ -42,13 +61,13 @@ class TransferServiceTest {
         toCard.setStatus(CardStatus.ACTIVE);
         toCard.setUser(user);
 
-        when(cardService.getCardById(1L)).thenReturn(fromCard);
-        when(cardService.getCardById(2L)).thenReturn(toCard);
+        when(cardService.lockCardsForTransfer(1L, 2L)).thenReturn(List.of(fromCard, toCard));
 
         transferService.transferBetweenOwnCards(user, 1L, 2L, new BigDecimal("200.00"));
 
-        verify(cardService).updateBalance(1L, new BigDecimal("800.00"));
-        verify(cardService).updateBalance(2L, new BigDecimal("700.00"));
+        verify(cardService).adjustBalance(1L, new BigDecimal("-200.00"));
+        verify(cardService).adjustBalance(2L, new BigDecimal("200.00"));
+        verify(ledgerService).recordTransfer(1L, 2L, new BigDecimal("200.00"));
     }
 
     @Test
@@ -68,12 +87,16 @@ class TransferServiceTest {
         toCard.setStatus(CardStatus.ACTIVE);
         toCard.setUser(user);
 
-        when(cardService.getCardById(1L)).thenReturn(fromCard);
-        when(cardService.getCardById(2L)).thenReturn(toCard);
+        when(cardService.lockCardsForTransfer(1L, 2L)).thenReturn(List.of(fromCard, toCard));
 
         assertThrows(InsufficientFundsException.class, () -> {
             transferService.transferBetweenOwnCards(user, 1L, 2L, new BigDecimal("200.00"));
         });
+
+        assertEquals(1.0, meterRegistry.get("bank.transfer.failures")
+                .tag("exception", "InsufficientFundsException").counter().count());
+        assertEquals(1, meterRegistry.get("bank.transfer").tag("outcome", "failure").timer().count());
+        verify(cardService, never()).adjustBalance(any(), any());
     }
 
     @Test
@@ -93,11 +116,103 @@ class TransferServiceTest {
         toCard.setStatus(CardStatus.ACTIVE);
         toCard.setUser(user);
 
-        when(cardService.getCardById(1L)).thenReturn(fromCard);
-        when(cardService.getCardById(2L)).thenReturn(toCard);
+        when(cardService.lockCardsForTransfer(1L, 2L)).thenReturn(List.of(fromCard, toCard));
 
         assertThrows(TransferException.class, () -> {
             transferService.transferBetweenOwnCards(user, 1L, 2L, new BigDecimal("200.00"));
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    void transferBetweenOwnCards_NonPositiveAmountSkipsLocking() {
+        User user = new User();
+        user.setId(1L);
+
+        assertThrows(TransferException.class, () -> {
+            transferService.transferBetweenOwnCards(user, 1L, 2L, BigDecimal.ZERO);
+        });
+        verifyNoInteractions(cardService);
+    }
+
+    @Test
+    void transferBatch_EmptyBatchRecordsFailure() {
+        assertThrows(TransferException.class, () -> transferService.transferBatch(new User(), List.of()));
+
+        assertEquals(1.0, meterRegistry.get("bank.transfer.failures")
+                .tag("exception", "TransferException").counter().count());
+        assertEquals(1, meterRegistry.get("bank.transfer")
+                .tag("type", "batch").tag("outcome", "failure").timer().count());
+        verifyNoInteractions(cardService);
+    }
+
+    @Test
+    void transferBatch_AppliesNetDeltasAndReportsPerItem() {
+        User user = new User();
+        user.setId(1L);
+
+        Card fromCard = new Card();
+        fromCard.setId(1L);
+        fromCard.setBalance(new BigDecimal("100.00"));
+        fromCard.setStatus(CardStatus.ACTIVE);
+        fromCard.setUser(user);
+
+        Card toCard = new Card();
+        toCard.setId(2L);
+        toCard.setBalance(new BigDecimal("0.00"));
+        toCard.setStatus(CardStatus.ACTIVE);
+        toCard.setUser(user);
+
+        when(cardService.lockExistingCardsForTransfer(any(), any())).thenReturn(List.of(fromCard, toCard));
+
+        List<TransferRequest> requests = List.of(
+                new TransferRequest(1L, 2L, new BigDecimal("60.00")),
+                new TransferRequest(1L, 2L, new BigDecimal("60.00")),
+                new TransferRequest(2L, 1L, new BigDecimal("10.00")),
+                new TransferRequest(1L, 3L, new BigDecimal("1.00")));
+        List<TransferResult> results = transferService.transferBatch(user, requests);
+
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertTrue(results.get(2).isSuccess());
+        assertFalse(results.get(3).isSuccess());
+
+        verify(cardService).applyBalanceDeltas(new TreeMap<>(Map.of(
+                1L, new BigDecimal("-50.00"),
+                2L, new BigDecimal("50.00"))));
+        verify(ledgerService).recordTransfers(List.of(requests.get(0), requests.get(2)));
+    }
+
+    @Test
+    void transferGroup_ChecksOwnershipPerTransfer() {
+        User owner = new User();
+        owner.setId(1L);
+        User other = new User();
+        other.setId(2L);
+
+        Card fromCard = new Card();
+        fromCard.setId(1L);
+        fromCard.setBalance(new BigDecimal("100.00"));
+        fromCard.setStatus(CardStatus.ACTIVE);
+        fromCard.setUser(owner);
+
+        Card toCard = new Card();
+        toCard.setId(2L);
+        toCard.setBalance(new BigDecimal("0.00"));
+        toCard.setStatus(CardStatus.ACTIVE);
+        toCard.setUser(owner);
+
+        when(cardService.lockExistingCardsForTransfer(any(), any())).thenReturn(List.of(fromCard, toCard));
+
+        List<TransferRequest> requests = List.of(
+                new TransferRequest(1L, 2L, new BigDecimal("30.00")),
+                new TransferRequest(1L, 2L, new BigDecimal("30.00")));
+        List<TransferResult> results = transferService.transferGroup(List.of(owner, other), requests);
+
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("Source card does not belong to user", results.get(1).getMessage());
+        verify(cardService).applyBalanceDeltas(new TreeMap<>(Map.of(
+                1L, new BigDecimal("-30.00"),
+                2L, new BigDecimal("30.00"))));
+        verify(ledgerService).recordTransfers(List.of(requests.get(0)));
+    }
+}
@@ -0,0 +1,143 @@
+package com.bank.bank_app.service;
+
+import com.bank.bank_app.dto.TransferRequest;
+import com.bank.bank_app.dto.TransferResult;
+import com.bank.bank_app.entity.User;
+import com.bank.bank_app.exception.TransferException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferShardExecutorTest {
+
+    @Mock
+    private TransferService transferService;
+
+    @InjectMocks
+    private TransferShardExecutor executor;
+
+    private final User user = new User("shard", "password", "ROLE_USER");
+
+    @BeforeEach
+    void setUp() {
+        user.setId(1L);
+        ReflectionTestUtils.setField(executor, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(executor, "enabled", true);
+        ReflectionTestUtils.setField(executor, "shardCount", 2);
+        executor.start();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.stop();
+    }
+
+    @Test
+    void submit_AppliesTransfersFromOneCardInOrder() throws Exception {
+        List<BigDecimal> applied = new ArrayList<>();
+        when(transferService.transferGroup(anyList(), anyList())).thenAnswer(inv -> {
+            List<TransferRequest> requests = inv.getArgument(1);
+            List<TransferResult> results = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                applied.add(requests.get(i).getAmount());
+                results.add(TransferResult.success(i, requests.get(i)));
+            }
+            return results;
+        });
+
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            futures.add(executor.submit(user, new TransferRequest(1L, 2L, BigDecimal.valueOf(i))));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+
+        List<BigDecimal> expected = new ArrayList<>();
+        for (int i = 1; i <= 20; i++) {
+            expected.add(BigDecimal.valueOf(i));
+        }
+        assertEquals(expected, applied);
+    }
+
+    @Test
+    void submit_FailsOnlyTheRejectedTransfer() throws Exception {
+        when(transferService.transferGroup(anyList(), anyList())).thenAnswer(inv -> {
+            List<TransferRequest> requests = inv.getArgument(1);
+            List<TransferResult> results = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                TransferRequest request = requests.get(i);
+                results.add(request.getAmount().compareTo(new BigDecimal("100")) > 0
+                        ? TransferResult.failure(i, request, "Insufficient funds")
+                        : TransferResult.success(i, request));
+            }
+            return results;
+        });
+
+        CompletableFuture<Void> ok = executor.submit(user, new TransferRequest(1L, 2L, new BigDecimal("10")));
+        CompletableFuture<Void> rejected = executor.submit(user, new TransferRequest(1L, 2L, new BigDecimal("500")));
+
+        assertNull(ok.get(5, TimeUnit.SECONDS));
+        ExecutionException e = assertThrows(ExecutionException.class, () -> rejected.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(TransferException.class, e.getCause());
+        assertEquals("Insufficient funds", e.getCause().getMessage());
+    }
+
+    @Test
+    void submit_FailsWholeGroupWhenCommitFails() {
+        when(transferService.transferGroup(anyList(), anyList())).thenThrow(new IllegalStateException("connection lost"));
+
+        CompletableFuture<Void> future = executor.submit(user, new TransferRequest(1L, 2L, new BigDecimal("10")));
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertEquals("connection lost", e.getCause().getMessage());
+    }
+
+    @Test
+    void submit_RejectsInvalidTransferWithoutQueueing() {
+        CompletableFuture<Void> future = executor.submit(user, new TransferRequest(1L, 1L, new BigDecimal("10")));
+
+        assertTrue(future.isCompletedExceptionally());
+        verifyNoInteractions(transferService);
+    }
+
+    @Test
+    void submit_RejectsAfterStop() throws Exception {
+        executor.stop();
+
+        CompletableFuture<Void> future = executor.submit(user, new TransferRequest(1L, 2L, new BigDecimal("10")));
+
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, e.getCause());
+        verifyNoInteractions(transferService);
+    }
+
+    @Test
+    void shardOf_SpreadsSequentialIds() {
+        int[] counts = new int[8];
+        for (long id = 1; id <= 8000; id++) {
+            counts[TransferShardExecutor.shardOf(id, 8)]++;
+        }
+        for (int count : counts) {
+            assertTrue(count > 800, () -> Arrays.toString(counts));
+        }
+    }
+}